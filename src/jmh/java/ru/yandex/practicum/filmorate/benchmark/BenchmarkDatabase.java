@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class BenchmarkDatabase {
+    // Шаг сдвига пользователей между соседними фильмами, чтобы их аудитории пересекались частично
+    private static final long USER_STEP = 7919;
+
+    public static JdbcTemplate create(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url(name), "sa", "password");
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+                new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"));
+        populator.setSqlScriptEncoding("UTF-8");
+        populator.execute(dataSource);
+        return new JdbcTemplate(dataSource);
+    }
+
+    // Контекст приложения без веб-сервера поверх уже заполненной базы: индексы и кэши строятся из неё при старте
+    // Настройки передаются как аргументы командной строки, иначе их перекрывает application.yaml
+    public static ConfigurableApplicationContext startApplication(String name, String... args) {
+        return start(WebApplicationType.NONE, name, args);
+    }
+
+    // То же с Tomcat на случайном порту; порт доступен в свойстве local.server.port
+    public static ConfigurableApplicationContext startWebApplication(String name, String... args) {
+        return start(WebApplicationType.SERVLET, name, args);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String name, String... args) {
+        List<String> arguments = new ArrayList<>(List.of("--spring.datasource.url=" + url(name),
+                "--spring.sql.init.mode=never", "--server.port=0", "--logging.level.root=WARN",
+                "--logging.level.org.zalando.logbook=WARN", "--filmorate.monitoring.slow-queries.enabled=false"));
+        arguments.addAll(List.of(args));
+        return new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(type)
+                .run(arguments.toArray(String[]::new));
+    }
+
+    public static void seedUsers(JdbcTemplate jdbc, int count) {
+        jdbc.update("""
+                    INSERT INTO users(email, login, name, birthday)
+                    SELECT CONCAT('user', X, '@bench.ru'), CONCAT('user', X), CONCAT('User ', X), DATE '1990-01-01'
+                    FROM SYSTEM_RANGE(1, ?)
+                """, count);
+    }
+
+    public static void seedFilms(JdbcTemplate jdbc, int count) {
+        jdbc.update("""
+                    INSERT INTO films(name, description, release_date, duration, mpa_id)
+                    SELECT CONCAT('Фильм ', X), CONCAT('Описание фильма ', X),
+                           DATEADD('DAY', MOD(X, 20000), DATE '1950-01-01'), 60 + MOD(X, 120), 1 + MOD(X, 5)
+                    FROM SYSTEM_RANGE(1, ?)
+                """, count);
+        jdbc.update("INSERT INTO film_genres(film_id, genre_id) SELECT id, 1 + MOD(id, 6) FROM films");
+    }
+
+    public static void seedFriends(JdbcTemplate jdbc, int users, int friendsPerUser) {
+        jdbc.update("""
+                    INSERT INTO friends(user_id, friend_id, status_id)
+                    SELECT DISTINCT user_id, friend_id, 1
+                    FROM (
+                        SELECT u.X AS user_id, 1 + CAST(FLOOR(RAND() * ?) AS BIGINT) AS friend_id
+                        FROM SYSTEM_RANGE(1, ?) u CROSS JOIN SYSTEM_RANGE(1, ?) f
+                    )
+                    WHERE user_id <> friend_id
+                """, users, users, friendsPerUser);
+    }
+
+    // Лайки распределены неравномерно: фильм f получает долю count * (sqrt(f / films) - sqrt((f - 1) / films)),
+    // больше всего — фильмы с малыми id. Пользователи фильма идут подряд со сдвигом от его id, поэтому пары
+    // уникальны и база заполняется детерминированно. Доля сверх числа пользователей переносится на следующий фильм
+    public static void seedLikes(JdbcTemplate jdbc, long count, int films, int users) {
+        if (count > (long) films * users) {
+            throw new IllegalArgumentException("Лайков больше, чем пар фильм-пользователь: " + count);
+        }
+        List<Object[]> quotas = new ArrayList<>();
+        long seeded = 0;
+        for (int filmId = 1; filmId <= films && seeded < count; filmId++) {
+            long target = filmId == films ? count : Math.round(count * Math.sqrt((double) filmId / films));
+            long quota = Math.min(target - seeded, users);
+            if (quota > 0) {
+                quotas.add(new Object[]{filmId, (long) filmId * USER_STEP, users, quota});
+                seeded += quota;
+            }
+        }
+        if (seeded < count) {
+            throw new IllegalStateException("Не удалось распределить лайки: " + seeded + " из " + count);
+        }
+        jdbc.batchUpdate("""
+                    INSERT INTO film_likes(film_id, user_id)
+                    SELECT ?, 1 + MOD(? + X, ?) FROM SYSTEM_RANGE(0, ? - 1)
+                """, quotas);
+        jdbc.update("""
+                    UPDATE films f
+                    SET likes_count = (SELECT COUNT(*) FROM film_likes fl WHERE fl.film_id = f.id)
+                """);
+        log.info("Лайков в базе: {} (запрошено {})",
+                jdbc.queryForObject("SELECT COUNT(*) FROM film_likes", Long.class), count);
+    }
+
+    private static String url(String name) {
+        return "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+    }
+}
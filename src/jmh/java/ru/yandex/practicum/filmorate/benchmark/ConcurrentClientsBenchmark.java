@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Приложение под нагрузкой 1000 одновременных клиентов в трёх режимах: фиксированный пул потоков Tomcat,
+// виртуальные потоки и виртуальные потоки с параллельной загрузкой жанров/лайков и пользователей/друзей.
+// SampleTime даёт распределение задержек (p50/p99/p999), Throughput — пропускную способность
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(1000)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g", "-Djdk.httpclient.connectionPoolSize=2000"})
+public class ConcurrentClientsBenchmark {
+
+    @Param({"platform", "virtual", "virtual-structured"})
+    private String mode;
+
+    @Param("20000")
+    private int films;
+
+    @Param("10000")
+    private int users;
+
+    @Param("500000")
+    private long likes;
+
+    @Param("50")
+    private int friendsPerUser;
+
+    @Param("20")
+    private int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String database = "clients-" + mode;
+        JdbcTemplate jdbc = BenchmarkDatabase.create(database);
+        BenchmarkDatabase.seedFilms(jdbc, films);
+        BenchmarkDatabase.seedUsers(jdbc, users);
+        BenchmarkDatabase.seedLikes(jdbc, likes, films, users);
+        BenchmarkDatabase.seedFriends(jdbc, users, friendsPerUser);
+
+        context = BenchmarkDatabase.startWebApplication(database,
+                "--spring.threads.virtual.enabled=" + !mode.equals("platform"),
+                "--filmorate.concurrency.structured.enabled=" + mode.equals("virtual-structured"),
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int filmsPage() throws IOException, InterruptedException {
+        long after = ThreadLocalRandom.current().nextLong(films);
+        return get("/films?after=" + after + "&limit=50");
+    }
+
+    @Benchmark
+    public int userFriends() throws IOException, InterruptedException {
+        long userId = 1 + ThreadLocalRandom.current().nextLong(users);
+        return get("/users/" + userId + "/friends");
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Неожиданный статус " + response.statusCode() + " для " + path);
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dto.PageDto;
+import ru.yandex.practicum.filmorate.dto.film.FilmDto;
+import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Сервисный слой фильмов на полном контексте приложения: популярные фильмы, догрузка жанров и лайков
+// для страницы и преобразование в DTO
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class FilmServiceBenchmark {
+
+    @Param("20000")
+    private int films;
+
+    @Param("10000")
+    private int users;
+
+    @Param("500000")
+    private long likes;
+
+    @Param("100")
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private FilmService filmService;
+    private List<Film> hydratedPage;
+    private long pageCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JdbcTemplate jdbc = BenchmarkDatabase.create("film-service");
+        BenchmarkDatabase.seedFilms(jdbc, films);
+        BenchmarkDatabase.seedUsers(jdbc, users);
+        BenchmarkDatabase.seedLikes(jdbc, likes, films, users);
+
+        context = BenchmarkDatabase.startApplication("film-service");
+        filmService = context.getBean(FilmService.class);
+
+        // Страница из середины каталога, чтобы не попадать только в самые популярные фильмы
+        pageCursor = films / 2;
+        hydratedPage = context.getBean(FilmRepository.class).getFilms(pageCursor, pageSize);
+        Set<Long> filmIds = hydratedPage.stream()
+                .map(Film::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Set<Long>> filmGenres = context.getBean(GenreRepository.class).findGenreIdsForFilms(filmIds);
+        ReferenceDataCache referenceDataCache = context.getBean(ReferenceDataCache.class);
+        hydratedPage.forEach(film -> film.setGenres(
+                referenceDataCache.getGenres(filmGenres.getOrDefault(film.getId(), Collections.emptySet()))));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<FilmDto> getPopularFilms() {
+        return filmService.getPopularFilms(pageSize);
+    }
+
+    // loadAdditionalData закрыт внутри сервиса и измеряется через страницу каталога: запрос страницы плюс
+    // пакетная догрузка жанров
+    @Benchmark
+    public PageDto<FilmDto> loadAdditionalData() {
+        return filmService.getFilms(pageCursor, pageSize);
+    }
+
+    @Benchmark
+    public List<FilmDto> mapToFilmDto() {
+        return hydratedPage.stream()
+                .map(FilmMapper::mapToFilmDto)
+                .collect(Collectors.toList());
+    }
+}
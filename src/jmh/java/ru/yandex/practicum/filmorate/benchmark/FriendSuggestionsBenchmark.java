@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.yandex.practicum.filmorate.storage.dal.FriendshipRepository;
+import ru.yandex.practicum.filmorate.storage.index.FriendshipGraph;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+// Рекомендации друзей обходом графа в памяти: 1 000 000 пользователей и 50 000 000 связей.
+// Граф загружается из сгенерированного потока строк вместо H2, как при старте приложения
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class FriendSuggestionsBenchmark {
+
+    @Param("1000000")
+    private int users;
+
+    @Param("50")
+    private int friendsPerUser;
+
+    // Каждый такой пользователь — «знаменитость» с сотней раз большим числом друзей
+    @Param("1000")
+    private int hubEvery;
+
+    @Param("10")
+    private int count;
+
+    private FriendshipGraph friendshipGraph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FriendshipRepository generated = new FriendshipRepository(null) {
+            @Override
+            public void forEachFriendship(BiConsumer<Long, Long> consumer) {
+                SplittableRandom random = new SplittableRandom(42);
+                for (long userId = 1; userId <= users; userId++) {
+                    int degree = userId % hubEvery == 0 ? friendsPerUser * 100 : friendsPerUser;
+                    long[] friendIds = random.longs(degree, 1, users + 1).sorted().distinct().toArray();
+                    for (long friendId : friendIds) {
+                        if (friendId != userId) {
+                            consumer.accept(userId, friendId);
+                        }
+                    }
+                }
+            }
+        };
+        friendshipGraph = new FriendshipGraph(generated);
+        ReflectionTestUtils.setField(friendshipGraph, "maxFanOut", 1000);
+        friendshipGraph.rebuild();
+    }
+
+    @Benchmark
+    public long[] suggestFriendIds() {
+        long userId = 1 + ThreadLocalRandom.current().nextLong(users);
+        return friendshipGraph.suggestFriendIds(userId, count);
+    }
+
+    @Benchmark
+    public long[] suggestFriendIdsForHub() {
+        long userId = hubEvery * (1 + ThreadLocalRandom.current().nextLong(users / hubEvery));
+        return friendshipGraph.suggestFriendIds(userId, count);
+    }
+}
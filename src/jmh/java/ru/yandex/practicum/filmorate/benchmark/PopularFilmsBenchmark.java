@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.dal.LikeRepository;
+import ru.yandex.practicum.filmorate.storage.dal.MpaRepository;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.FilmRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.MpaRowMapper;
+import ru.yandex.practicum.filmorate.storage.index.PopularityIndex;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Сравнение способов выбрать топ популярных фильмов: сортировка всего каталога в памяти,
+// агрегирующий запрос в H2, чтение индекса по столбцу films.likes_count и инкрементальный индекс популярности
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class PopularFilmsBenchmark {
+    // Запрос, которым приложение пользовалось до появления столбца films.likes_count
+    private static final String FIND_POPULAR_BY_AGGREGATION = """
+                SELECT f.*, m.name AS mpa_name, m.description AS mpa_description
+                FROM films f
+                JOIN mpa m ON f.mpa_id = m.id
+                LEFT JOIN (
+                    SELECT film_id, COUNT(*) AS likes_count
+                    FROM film_likes
+                    GROUP BY film_id
+                ) fl ON f.id = fl.film_id
+                ORDER BY COALESCE(fl.likes_count, 0) DESC, f.id
+                LIMIT ?
+            """;
+
+    @Param("100000")
+    private int films;
+
+    @Param("100000")
+    private int users;
+
+    @Param("10000000")
+    private long likes;
+
+    @Param("10")
+    private int count;
+
+    private JdbcTemplate jdbc;
+    private FilmRowMapper filmRowMapper;
+    private FilmRepository filmRepository;
+    private LikeRepository likeRepository;
+    private PopularityIndex popularityIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jdbc = BenchmarkDatabase.create("popular");
+        BenchmarkDatabase.seedFilms(jdbc, films);
+        BenchmarkDatabase.seedUsers(jdbc, users);
+        BenchmarkDatabase.seedLikes(jdbc, likes, films, users);
+
+        NamedParameterJdbcTemplate namedJdbc = new NamedParameterJdbcTemplate(jdbc);
+        ReferenceDataCache referenceDataCache = new ReferenceDataCache(
+                new MpaRepository(jdbc, new MpaRowMapper()), new GenreRepository(new GenreRowMapper(), namedJdbc));
+        referenceDataCache.reload();
+
+        filmRowMapper = new FilmRowMapper(referenceDataCache);
+        filmRepository = new FilmRepository(jdbc, filmRowMapper);
+        likeRepository = new LikeRepository(namedJdbc,
+                new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource())));
+        popularityIndex = new PopularityIndex(likeRepository);
+        popularityIndex.rebuild();
+    }
+
+    @Benchmark
+    public List<Film> inMemorySort() {
+        List<Film> allFilms = filmRepository.getFilms();
+        Set<Long> filmIds = allFilms.stream()
+                .map(Film::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Set<Long>> filmLikes = likeRepository.findLikesForFilms(filmIds);
+        allFilms.forEach(film -> film.setLikesCount(
+                filmLikes.getOrDefault(film.getId(), Collections.emptySet()).size()));
+
+        return allFilms.stream()
+                .sorted(Comparator.comparingInt(Film::getLikesCount).reversed())
+                .limit(count)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Film> sqlAggregation() {
+        return jdbc.query(FIND_POPULAR_BY_AGGREGATION, filmRowMapper, count);
+    }
+
+    // FilmRepository.getPopularFilms: первые строки индекса по films.likes_count
+    @Benchmark
+    public List<Film> sqlLikesCountColumn() {
+        return filmRepository.getPopularFilms(count);
+    }
+
+    @Benchmark
+    public List<Film> popularityIndex() {
+        return filmRepository.getFilmsByIds(popularityIndex.getTopFilmIds(count));
+    }
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.storage.index.LikeBitmapIndex;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Рекомендации по индексу лайков на миллионе пользователей. Индекс наполняется событиями напрямую,
+// без БД: загрузка десятков миллионов строк в H2 заняла бы больше времени, чем сам замер
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class RecommendationsBenchmark {
+
+    @Param("100000")
+    private int films;
+
+    @Param("1000000")
+    private int users;
+
+    @Param("20")
+    private int likesPerUser;
+
+    @Param("10")
+    private int count;
+
+    private LikeBitmapIndex likeBitmapIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        likeBitmapIndex = new LikeBitmapIndex(null);
+        ReflectionTestUtils.setField(likeBitmapIndex, "neighbours", 50);
+        ReflectionTestUtils.setField(likeBitmapIndex, "maxFilmAudience", 100_000);
+
+        // Популярность фильмов неравномерна: квадрат равномерной величины смещает лайки к началу каталога
+        SplittableRandom random = new SplittableRandom(42);
+        for (long userId = 1; userId <= users; userId++) {
+            for (int like = 0; like < likesPerUser; like++) {
+                double position = random.nextDouble();
+                long filmId = 1 + (long) (position * position * films);
+                likeBitmapIndex.onLikeAdded(new LikeAddedEvent(filmId, userId, Instant.now()));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Long> recommend() {
+        long userId = 1 + ThreadLocalRandom.current().nextLong(users);
+        return likeBitmapIndex.recommend(userId, count);
+    }
+}
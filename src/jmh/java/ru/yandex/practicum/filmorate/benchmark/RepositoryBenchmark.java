@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.storage.dal.FriendshipRepository;
+import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.dal.LikeRepository;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
+import ru.yandex.practicum.filmorate.storage.index.FriendshipGraph;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+// Пакетные выборки жанров и лайков для страницы фильмов и поиск общих друзей запросом и по графу в памяти
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class RepositoryBenchmark {
+
+    @Param("20000")
+    private int films;
+
+    @Param("10000")
+    private int users;
+
+    @Param("500000")
+    private long likes;
+
+    @Param("50")
+    private int friendsPerUser;
+
+    @Param("100")
+    private int pageSize;
+
+    private GenreRepository genreRepository;
+    private LikeRepository likeRepository;
+    private FriendshipRepository friendshipRepository;
+    private FriendshipGraph friendshipGraph;
+    private Set<Long> pageFilmIds;
+    private long userId;
+    private long otherId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JdbcTemplate jdbc = BenchmarkDatabase.create("repositories");
+        BenchmarkDatabase.seedFilms(jdbc, films);
+        BenchmarkDatabase.seedUsers(jdbc, users);
+        BenchmarkDatabase.seedLikes(jdbc, likes, films, users);
+        BenchmarkDatabase.seedFriends(jdbc, users, friendsPerUser);
+
+        NamedParameterJdbcTemplate namedJdbc = new NamedParameterJdbcTemplate(jdbc);
+        genreRepository = new GenreRepository(new GenreRowMapper(), namedJdbc);
+        likeRepository = new LikeRepository(namedJdbc,
+                new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource())));
+        friendshipRepository = new FriendshipRepository(jdbc);
+        friendshipGraph = new FriendshipGraph(friendshipRepository);
+        friendshipGraph.rebuild();
+
+        pageFilmIds = LongStream.rangeClosed(1, pageSize)
+                .boxed()
+                .collect(Collectors.toSet());
+        userId = 1;
+        otherId = 2;
+    }
+
+    @Benchmark
+    public Map<Long, Set<Genre>> findGenresForFilms() {
+        return genreRepository.findGenresForFilms(pageFilmIds);
+    }
+
+    @Benchmark
+    public Map<Long, Set<Long>> findGenreIdsForFilms() {
+        return genreRepository.findGenreIdsForFilms(pageFilmIds);
+    }
+
+    @Benchmark
+    public Map<Long, Set<Long>> findLikesForFilms() {
+        return likeRepository.findLikesForFilms(pageFilmIds);
+    }
+
+    @Benchmark
+    public List<User> commonFriendsQuery() {
+        return friendshipRepository.getCommonFriends(userId, otherId);
+    }
+
+    @Benchmark
+    public long[] commonFriendsGraph() {
+        return friendshipGraph.getCommonFriendIds(userId, otherId);
+    }
+}
@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.concurrent;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.InternalServerException;
+import ru.yandex.practicum.filmorate.monitoring.QueryStats;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Запуск независимых запросов параллельно на виртуальных потоках по схеме StructuredTaskScope.ShutdownOnFailure:
+// подзадачи живут не дольше области, ошибка одной отменяет остальные, прерывание вызывающего потока
+// отменяет все. В Java 21 StructuredTaskScope — preview API, поэтому область реализована поверх обычного
+// ExecutorService. Когда режим выключен, подзадачи выполняются сразу в вызывающем потоке
+@Component
+public class StructuredExecutor {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${filmorate.concurrency.structured.enabled:false}")
+    private boolean enabled;
+
+    public Scope open() {
+        return new Scope(enabled);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public final class Scope implements AutoCloseable {
+        private final boolean concurrent;
+        // Подзадачи отменяют соседей из своих потоков
+        private final List<Subtask<?>> subtasks = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private Scope(boolean concurrent) {
+            this.concurrent = concurrent;
+        }
+
+        public <T> Supplier<T> fork(Supplier<T> task) {
+            Subtask<T> subtask = new Subtask<>();
+            if (!concurrent) {
+                subtask.complete(task.get());
+                return subtask;
+            }
+
+            QueryStats queryStats = QueryStats.current();
+            // Подзадача попадает в список до запуска, чтобы отмена соседом не могла её пропустить
+            subtasks.add(subtask);
+            subtask.future = executor.submit(() -> {
+                if (!subtask.start()) {
+                    return;
+                }
+                QueryStats.bind(queryStats);
+                try {
+                    subtask.complete(task.get());
+                } catch (Throwable e) {
+                    if (failure.compareAndSet(null, e)) {
+                        cancelAll();
+                    }
+                } finally {
+                    QueryStats.stop();
+                    subtask.finish();
+                }
+            });
+            return subtask;
+        }
+
+        // Ждёт завершения всех подзадач, в том числе отменённых, и пробрасывает первую ошибку
+        public void join() {
+            try {
+                for (Subtask<?> subtask : subtasks) {
+                    subtask.awaitFinished();
+                }
+            } catch (InterruptedException e) {
+                cancelAll();
+                awaitAllUninterruptibly();
+                Thread.currentThread().interrupt();
+                throw new InternalServerException("Обработка запроса прервана");
+            }
+
+            Throwable error = failure.get();
+            if (error instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (error instanceof Error e) {
+                throw e;
+            }
+        }
+
+        // Область не закрывается, пока в ней работает хотя бы одна подзадача
+        @Override
+        public void close() {
+            cancelAll();
+            awaitAllUninterruptibly();
+        }
+
+        private void cancelAll() {
+            subtasks.forEach(Subtask::cancel);
+        }
+
+        private void awaitAllUninterruptibly() {
+            boolean interrupted = false;
+            for (Subtask<?> subtask : subtasks) {
+                while (true) {
+                    try {
+                        subtask.awaitFinished();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Отменённая до запуска подзадача сразу считается завершённой и уже не стартует;
+    // запущенная завершается только в своём потоке
+    private static final class Subtask<T> implements Supplier<T> {
+        private static final int NEW = 0;
+        private static final int RUNNING = 1;
+        private static final int SKIPPED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(NEW);
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile Future<?> future;
+        private volatile T result;
+        private volatile boolean done;
+
+        void complete(T value) {
+            result = value;
+            done = true;
+        }
+
+        boolean start() {
+            return state.compareAndSet(NEW, RUNNING);
+        }
+
+        void finish() {
+            finished.countDown();
+        }
+
+        void cancel() {
+            if (state.compareAndSet(NEW, SKIPPED)) {
+                finished.countDown();
+            }
+            Future<?> submitted = future;
+            if (submitted != null) {
+                submitted.cancel(true);
+            }
+        }
+
+        void awaitFinished() throws InterruptedException {
+            finished.await();
+        }
+
+        @Override
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("Подзадача не завершена");
+            }
+            return result;
+        }
+    }
+}
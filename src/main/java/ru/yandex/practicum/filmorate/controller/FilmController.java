@@ -1,16 +1,31 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.dto.PageDto;
 import ru.yandex.practicum.filmorate.dto.film.FilmDto;
 import ru.yandex.practicum.filmorate.dto.film.NewFilmRequest;
 import ru.yandex.practicum.filmorate.dto.film.UpdateFilmRequest;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.cache.ResourceVersions;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @Validated
@@ -20,15 +35,73 @@ import java.util.List;
 public class FilmController {
 
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final ResourceVersions resourceVersions;
+    private final SerializedResponseCache serializedResponseCache;
 
+    // Метка берётся до чтения данных: изменение между ними даст лишний ответ 200, но не устаревший 304
     @GetMapping
-    public List<FilmDto> getFilms() {
-        return filmService.getFilms();
+    public ResponseEntity<List<FilmDto>> getFilms(WebRequest webRequest) {
+        String etag = resourceVersions.getFilmsTag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(filmService.getFilms());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageDto<FilmDto>> getFilms(
+            @RequestParam(defaultValue = "0") @PositiveOrZero long after,
+            @RequestParam @Positive @Max(1000) int limit,
+            WebRequest webRequest
+    ) {
+        String etag = resourceVersions.getFilmsTag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(filmService.getFilms(after, limit));
+    }
+
+    // Курсор без размера страницы — тоже постраничный запрос, а не полный список
+    @GetMapping(params = {"after", "!limit"})
+    public ResponseEntity<PageDto<FilmDto>> getFilms(@RequestParam @PositiveOrZero long after, WebRequest webRequest) {
+        return getFilms(after, PageDto.DEFAULT_LIMIT, webRequest);
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamFilms() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                filmService.exportFilms(film -> writeFilm(generator, film));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @GetMapping("/search")
+    public List<FilmDto> searchFilms(
+            @RequestParam @NotBlank @Size(max = 200) String q,
+            @RequestParam(defaultValue = "10") @Positive @Max(100) int limit
+    ) {
+        return filmService.searchFilms(q, limit);
     }
 
     @GetMapping("/{id}")
-    public FilmDto getFilm(@PathVariable Long id) {
-        return filmService.getFilm(id);
+    public ResponseEntity<byte[]> getFilm(@PathVariable Long id, WebRequest webRequest) {
+        String etag = resourceVersions.getFilmTag(id);
+        boolean known = resourceVersions.isFilmKnown(id);
+        if (known && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        // Неизвестный фильм отдаётся без метки, её получит следующий ответ после markFilmFound
+        ResponseEntity<byte[]> response =
+                serializedResponseCache.film(id, etag, known, webRequest, () -> filmService.getFilm(id));
+        resourceVersions.markFilmFound(id, etag);
+        return response;
     }
 
     @PostMapping
@@ -37,6 +110,12 @@ public class FilmController {
         return filmService.create(request);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<Long> createBatch(@RequestBody @NotEmpty @Size(max = 100000) List<@Valid NewFilmRequest> requests) {
+        return filmService.createBatch(requests);
+    }
+
     @PutMapping
     public FilmDto update(@RequestBody @Valid UpdateFilmRequest request) {
         return filmService.update(request);
@@ -66,8 +145,29 @@ public class FilmController {
     }
 
     @GetMapping("/popular")
-    public List<FilmDto> getPopularFilms(@RequestParam(defaultValue = "10") int count) {
-        return filmService.getPopularFilms(count);
+    public List<FilmDto> getPopularFilms(
+            @RequestParam(defaultValue = "10") int count,
+            @RequestParam(required = false) @Positive Long genreId,
+            @RequestParam(required = false) @Positive Long mpaId,
+            @RequestParam(required = false) @Positive Integer year
+    ) {
+        return filmService.getPopularFilms(count, genreId, mpaId, year);
+    }
+
+    @GetMapping("/trending")
+    public List<FilmDto> getTrendingFilms(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "10") @Positive @Max(100) int count
+    ) {
+        return filmService.getTrendingFilms(window, count);
+    }
+
+    private void writeFilm(JsonGenerator generator, FilmDto film) {
+        try {
+            generator.writeObject(film);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
 
@@ -1,29 +1,42 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.dto.genre.GenreDto;
 import ru.yandex.practicum.filmorate.service.GenreService;
-
-import java.util.List;
+import ru.yandex.practicum.filmorate.storage.cache.ResourceVersions;
 
 @RestController
 @RequestMapping("/genres")
 @RequiredArgsConstructor
 public class GenreController {
     private final GenreService genreService;
+    private final ResourceVersions resourceVersions;
+    private final SerializedResponseCache serializedResponseCache;
 
     @GetMapping
-    public List<GenreDto> getAllGenres() {
-        return genreService.getAllGenres();
+    public ResponseEntity<byte[]> getAllGenres(WebRequest webRequest) {
+        String etag = resourceVersions.getReferenceDataTag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return serializedResponseCache.referenceData("genre", etag, webRequest, genreService::getAllGenres);
     }
 
     @GetMapping("/{id}")
-    public GenreDto getGenreById(@PathVariable Long id) {
-        return genreService.getGenreById(id);
+    public ResponseEntity<GenreDto> getGenreById(@PathVariable Long id, WebRequest webRequest) {
+        // Поиск в справочнике не обращается к БД и отвечает 404 на несуществующий id раньше проверки метки
+        GenreDto dto = genreService.getGenreById(id);
+        String etag = resourceVersions.getReferenceDataTag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(dto);
     }
 }
 
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+import ru.yandex.practicum.filmorate.monitoring.RouteLatencyRecorder;
+import ru.yandex.practicum.filmorate.monitoring.SlowQueryLog;
+import ru.yandex.practicum.filmorate.storage.cache.FilmCache;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.dal.LikesCountReconciler;
+
+@RestController
+@RequestMapping("/internal")
+@RequiredArgsConstructor
+public class InternalController {
+    private final ReferenceDataCache referenceDataCache;
+    private final FilmCache filmCache;
+    private final SlowQueryLog slowQueryLog;
+    private final RouteLatencyRecorder routeLatencyRecorder;
+    private final LikesCountReconciler likesCountReconciler;
+
+    @PostMapping("/reference-data/reload")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void reloadReferenceData() {
+        referenceDataCache.reload();
+    }
+
+    // Возвращает id фильмов, у которых счётчик лайков расходился с film_likes
+    @PostMapping("/likes-count/reconcile")
+    public Set<Long> reconcileLikesCounts() {
+        return likesCountReconciler.reconcile();
+    }
+
+    @GetMapping("/cache/films")
+    public FilmCache.Stats getFilmCacheStats() {
+        return filmCache.getStats();
+    }
+
+    @GetMapping("/metrics")
+    public List<RouteLatencyRecorder.RouteMetrics> getMetrics() {
+        return routeLatencyRecorder.getMetrics();
+    }
+
+    @GetMapping("/slow-queries")
+    public List<SlowQueryLog.SlowQuery> getSlowQueries() {
+        return slowQueryLog.getEntries();
+    }
+
+    @DeleteMapping("/slow-queries")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void clearSlowQueries() {
+        slowQueryLog.clear();
+    }
+}
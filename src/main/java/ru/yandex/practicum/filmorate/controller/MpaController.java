@@ -1,30 +1,42 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.dto.mpa.MpaDto;
 import ru.yandex.practicum.filmorate.service.MpaService;
-
-import java.util.List;
-
+import ru.yandex.practicum.filmorate.storage.cache.ResourceVersions;
 
 @RestController
 @RequestMapping("/mpa")
 @RequiredArgsConstructor
 public class MpaController {
     private final MpaService mpaService;
+    private final ResourceVersions resourceVersions;
+    private final SerializedResponseCache serializedResponseCache;
 
     @GetMapping
-    public List<MpaDto> getAllMpa() {
-        return mpaService.getAllMpa();
+    public ResponseEntity<byte[]> getAllMpa(WebRequest webRequest) {
+        String etag = resourceVersions.getReferenceDataTag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return serializedResponseCache.referenceData("mpa", etag, webRequest, mpaService::getAllMpa);
     }
 
     @GetMapping("/{id}")
-    public MpaDto getMpaById(@PathVariable Long id) {
-        return mpaService.getMpaById(id);
+    public ResponseEntity<MpaDto> getMpaById(@PathVariable Long id, WebRequest webRequest) {
+        // Поиск в справочнике не обращается к БД и отвечает 404 на несуществующий id раньше проверки метки
+        MpaDto dto = mpaService.getMpaById(id);
+        String etag = resourceVersions.getReferenceDataTag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(dto);
     }
 }
 
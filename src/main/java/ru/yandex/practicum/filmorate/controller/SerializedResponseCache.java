@@ -0,0 +1,139 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Готовые тела ответов: JSON и его gzip-версия сериализуются один раз на версию ресурса
+// и отдаются массивом байт мимо Jackson
+@Component
+public class SerializedResponseCache {
+    private final ObjectMapper objectMapper;
+    private final CacheControl referenceDataCacheControl;
+    private final Map<String, SerializedResponse> referenceData = new ConcurrentHashMap<>();
+    private final Map<Long, SerializedResponse> films;
+
+    public SerializedResponseCache(
+            ObjectMapper objectMapper,
+            @Value("${filmorate.http.serialized-cache.max-films:1000}") int maxFilms,
+            @Value("${filmorate.http.reference-data-max-age:1d}") Duration referenceDataMaxAge) {
+        this.objectMapper = objectMapper;
+        this.referenceDataCacheControl = CacheControl.maxAge(referenceDataMaxAge).cachePublic();
+        // Порядок доступа вытесняет давно не запрашивавшиеся фильмы, в кэше остаются самые востребованные
+        this.films = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SerializedResponse> eldest) {
+                return size() > maxFilms;
+            }
+        });
+    }
+
+    public ResponseEntity<byte[]> referenceData(String key, String etag, WebRequest webRequest, Supplier<?> body) {
+        SerializedResponse response = referenceData.get(key);
+        if (response == null || !response.etag().equals(etag)) {
+            response = serialize(etag, body.get());
+            referenceData.put(key, response);
+        }
+        return toResponseEntity(response, true, webRequest, referenceDataCacheControl);
+    }
+
+    // Без sendETag метка в ответ не попадает: Spring сверяет If-None-Match с ETag возвращаемого ответа
+    // и ответил бы 304 на метку, которую сервер для этого фильма ещё не выдавал
+    public ResponseEntity<byte[]> film(Long filmId, String etag, boolean sendETag, WebRequest webRequest,
+                                       Supplier<?> body) {
+        SerializedResponse response = films.get(filmId);
+        if (response == null || !response.etag().equals(etag)) {
+            response = serialize(etag, body.get());
+            films.put(filmId, response);
+        }
+        // Фильм меняется в любой момент: клиент может хранить ответ, но перепроверяет его по ETag
+        return toResponseEntity(response, sendETag, webRequest, CacheControl.noCache());
+    }
+
+    private ResponseEntity<byte[]> toResponseEntity(SerializedResponse response, boolean sendETag,
+                                                    WebRequest webRequest, CacheControl cacheControl) {
+        boolean gzip = acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (sendETag) {
+            builder.eTag(response.etag());
+        }
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        byte[] body = gzip ? response.gzip() : response.json();
+        return builder.contentLength(body.length).body(body);
+    }
+
+    // Accept-Encoding — список кодировок с весами: gzip;q=0 запрещает сжатие, "*" разрешает его,
+    // если gzip не упомянут явно. Прочие токены (x-gzip, br) на выбор не влияют
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].strip();
+            if (name.equalsIgnoreCase("gzip")) {
+                return quality(parts) > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = quality(parts) > 0;
+            }
+        }
+        return wildcard;
+    }
+
+    private static double quality(String[] parts) {
+        for (int idx = 1; idx < parts.length; idx++) {
+            String parameter = parts[idx].strip();
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).strip());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private SerializedResponse serialize(String etag, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 32);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(json);
+            }
+            return new SerializedResponse(etag, json, compressed.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать ответ", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record SerializedResponse(String etag, byte[] json, byte[] gzip) {
+    }
+}
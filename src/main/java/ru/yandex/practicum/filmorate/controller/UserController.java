@@ -1,15 +1,20 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.dto.PageDto;
+import ru.yandex.practicum.filmorate.dto.film.FilmDto;
 import ru.yandex.practicum.filmorate.dto.user.NewUserRequest;
 import ru.yandex.practicum.filmorate.dto.user.UpdateUserRequest;
 import ru.yandex.practicum.filmorate.dto.user.UserDto;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.util.List;
@@ -21,6 +26,7 @@ import java.util.List;
 @RequestMapping("/users")
 public class UserController {
     private final UserService userService;
+    private final FilmService filmService;
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
@@ -28,6 +34,21 @@ public class UserController {
         return userService.getUsers();
     }
 
+    @GetMapping(params = "limit")
+    @ResponseStatus(HttpStatus.OK)
+    public PageDto<UserDto> getUsers(
+            @RequestParam(defaultValue = "0") @PositiveOrZero long after,
+            @RequestParam @Positive @Max(1000) int limit) {
+        return userService.getUsers(after, limit);
+    }
+
+    // Курсор без размера страницы — тоже постраничный запрос, а не полный список
+    @GetMapping(params = {"after", "!limit"})
+    @ResponseStatus(HttpStatus.OK)
+    public PageDto<UserDto> getUsers(@RequestParam @PositiveOrZero long after) {
+        return userService.getUsers(after, PageDto.DEFAULT_LIMIT);
+    }
+
     @GetMapping("/{userId}")
     @ResponseStatus(HttpStatus.OK)
     public UserDto getUserById(@PathVariable("userId") @Positive Long userId) {
@@ -76,6 +97,14 @@ public class UserController {
         return userService.getCommonFriends(userId, otherId);
     }
 
+    @GetMapping("/{userId}/friends/suggestions")
+    @ResponseStatus(HttpStatus.OK)
+    public List<UserDto> getFriendSuggestions(
+            @PathVariable("userId") @Positive Long userId,
+            @RequestParam(defaultValue = "10") @Positive @Max(1000) int count) {
+        return userService.getFriendSuggestions(userId, count);
+    }
+
     @DeleteMapping("/{userId}/friends/{friendId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void removeFriend(
@@ -84,4 +113,12 @@ public class UserController {
         userService.removeFriend(userId, friendId);
     }
 
+    @GetMapping("/{userId}/recommendations")
+    @ResponseStatus(HttpStatus.OK)
+    public List<FilmDto> getRecommendations(
+            @PathVariable("userId") @Positive Long userId,
+            @RequestParam(defaultValue = "10") @Positive @Max(1000) int count) {
+        return filmService.getRecommendations(userId, count);
+    }
+
 }
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PageDto<T> {
+    // Размер страницы, если клиент передал только курсор
+    public static final int DEFAULT_LIMIT = 100;
+
+    private List<T> items;
+
+    // id последнего элемента страницы; null, если страница последняя
+    private Long nextCursor;
+}
@@ -25,5 +25,8 @@ public class FilmDto {
 
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private MpaDto mpa;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int likesCount;
 }
 
@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.event;
+
+import ru.yandex.practicum.filmorate.model.film.Film;
+
+public record FilmUpdatedEvent(Film film) {
+}
@@ -0,0 +1,4 @@
+package ru.yandex.practicum.filmorate.event;
+
+public record FriendAddedEvent(Long userId, Long friendId) {
+}
@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.event;
+
+import java.time.Instant;
+
+public record LikeAddedEvent(Long filmId, Long userId, Instant likedAt) {
+}
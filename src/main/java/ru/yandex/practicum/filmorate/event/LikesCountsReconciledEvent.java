@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.event;
+
+import java.util.Set;
+
+public record LikesCountsReconciledEvent(Set<Long> filmIds) {
+}
@@ -32,6 +32,7 @@ public final class FilmMapper {
                         .sorted(Comparator.comparing(Genre::getId))
                         .map(GenreMapper::mapToGenreDto)
                         .collect(Collectors.toList()))
+                .likesCount(film.getLikesCount())
                 .build();
 
     }
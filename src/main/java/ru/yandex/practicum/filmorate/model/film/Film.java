@@ -4,7 +4,6 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDate;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -23,10 +22,5 @@ public class Film {
 
     private MPA mpa;
 
-    @Builder.Default
-    private Set<Long> likes = new HashSet<>();
-
-    public int getLikesCount() {
-        return likes.size();
-    }
+    private int likesCount;
 }
@@ -1,11 +1,9 @@
 package ru.yandex.practicum.filmorate.model.film;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Value;
 
-@Data
-@AllArgsConstructor
+@Value
 public class Genre {
-    private Long id;
-    private String name;
+    Long id;
+    String name;
 }
@@ -0,0 +1,4 @@
+package ru.yandex.practicum.filmorate.model.film;
+
+public record Like(Long filmId, Long userId) {
+}
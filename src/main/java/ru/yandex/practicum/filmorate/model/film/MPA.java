@@ -1,13 +1,11 @@
 package ru.yandex.practicum.filmorate.model.film;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Value;
 
-@Data
-@AllArgsConstructor
+@Value
 public class MPA {
-    private Long id;
-    private String name;
-    private String description;
+    Long id;
+    String name;
+    String description;
 
 }
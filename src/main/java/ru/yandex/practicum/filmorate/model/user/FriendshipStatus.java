@@ -1,6 +0,0 @@
-package ru.yandex.practicum.filmorate.model.user;
-
-public enum FriendshipStatus {
-    REQUESTED,   // Неподтвержденная
-    CONFIRMED    // Подтвержденная
-}
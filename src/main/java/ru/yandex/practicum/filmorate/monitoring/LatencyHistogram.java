@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Гистограмма задержек в духе HdrHistogram: значения в микросекундах раскладываются по логарифмическим
+// диапазонам, каждый из которых поделён на 32 линейных корзины (погрешность не больше ~3%).
+// Запись — атомарные инкременты без блокировок и без выделения памяти. Интервальные счётчики
+// обнуляются при снятии интервального снимка, накопительные растут всё время работы
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final long MAX_VALUE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int BUCKET_COUNT = indexOf(MAX_VALUE_MICROS) + 1;
+
+    private final AtomicLongArray cumulative = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLongArray interval = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong cumulativeMax = new AtomicLong();
+    private final AtomicLong intervalMax = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), MAX_VALUE_MICROS);
+        int index = indexOf(micros);
+        cumulative.incrementAndGet(index);
+        interval.incrementAndGet(index);
+        updateMax(cumulativeMax, micros);
+        updateMax(intervalMax, micros);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int idx = 0; idx < BUCKET_COUNT; idx++) {
+            counts[idx] = cumulative.get(idx);
+        }
+        return Snapshot.of(counts, cumulativeMax.get());
+    }
+
+    public Snapshot intervalSnapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int idx = 0; idx < BUCKET_COUNT; idx++) {
+            counts[idx] = interval.getAndSet(idx, 0);
+        }
+        return Snapshot.of(counts, intervalMax.getAndSet(0));
+    }
+
+    // Значения до 64 мкс хранятся точно, дальше в каждой степени двойки остаются старшие 6 бит
+    static int indexOf(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int top = (int) (micros >>> shift);
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    // Верхняя граница корзины, чтобы перцентили не занижали задержку
+    static long highestValueAt(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long top = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    public record Snapshot(long count, double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+
+        static Snapshot of(long[] counts, long maxMicros) {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return new Snapshot(
+                    total,
+                    percentile(counts, total, 0.50, maxMicros),
+                    percentile(counts, total, 0.99, maxMicros),
+                    percentile(counts, total, 0.999, maxMicros),
+                    maxMicros / 1000.0
+            );
+        }
+
+        private static double percentile(long[] counts, long total, double quantile, long maxMicros) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * quantile));
+            long seen = 0;
+            for (int idx = 0; idx < counts.length; idx++) {
+                seen += counts[idx];
+                if (seen >= rank) {
+                    return Math.min(highestValueAt(idx), maxMicros) / 1000.0;
+                }
+            }
+            return maxMicros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class MonitoringWebConfig implements WebMvcConfigurer {
+    private final RouteLatencyRecorder routeLatencyRecorder;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(routeLatencyRecorder)
+                .addPathPatterns("/films/**", "/users/**", "/genres/**", "/mpa/**");
+    }
+}
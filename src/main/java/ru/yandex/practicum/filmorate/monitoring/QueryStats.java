@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Счётчик SQL-выражений и времени в БД для текущего запроса; привязан к потоку, который его обрабатывает,
+// и к подзадачам, запущенным этим потоком параллельно
+public final class QueryStats {
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger statementCount = new AtomicInteger();
+    private final AtomicLong elapsedNanos = new AtomicLong();
+
+    private QueryStats() {
+    }
+
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static void bind(QueryStats stats) {
+        if (stats != null) {
+            CURRENT.set(stats);
+        }
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    static void record(long nanos) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statementCount.incrementAndGet();
+            stats.elapsedNanos.addAndGet(nanos);
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount.get();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos.get();
+    }
+
+    public double getElapsedMillis() {
+        return (double) elapsedNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Оборачивает DataSource так, что каждое выполнение выражения учитывается в QueryStats текущего запроса
+// и, если выражение медленное, попадает в SlowQueryLog вместе с параметрами
+@Component
+public class QueryStatsDataSourcePostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<SlowQueryLog> slowQueryLogProvider;
+
+    public QueryStatsDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLogProvider) {
+        this.slowQueryLogProvider = slowQueryLogProvider;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof QueryStatsDataSource)) {
+            return new QueryStatsDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    private class QueryStatsDataSource extends DelegatingDataSource {
+
+        QueryStatsDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = QueryStatsDataSourcePostProcessor.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String query ? query : null;
+                SlowQueryLog slowQueryLog = slowQueryLogProvider.getIfAvailable();
+                return proxy(method.getReturnType(), new StatementHandler(statement, sql, slowQueryLog));
+            }
+            return result;
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        private final SlowQueryLog slowQueryLog;
+        private final List<Object> parameters;
+
+        StatementHandler(Statement target, String sql, SlowQueryLog slowQueryLog) {
+            this.target = target;
+            this.sql = sql;
+            this.slowQueryLog = slowQueryLog;
+            // Параметры запоминаются только когда их есть куда записать
+            this.parameters = slowQueryLog != null && slowQueryLog.isEnabled() && target instanceof PreparedStatement
+                    ? new ArrayList<>()
+                    : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            String name = method.getName();
+            if (parameters != null) {
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    setParameter(index, name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                }
+            }
+            if (!name.startsWith("execute")) {
+                return QueryStatsDataSourcePostProcessor.invoke(target, method, args);
+            }
+
+            long start = System.nanoTime();
+            try {
+                return QueryStatsDataSourcePostProcessor.invoke(target, method, args);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                QueryStats.record(nanos);
+                if (slowQueryLog != null) {
+                    String executedSql = sql != null ? sql : args != null && args.length > 0 ? (String) args[0] : null;
+                    slowQueryLog.record(executedSql, parameters, nanos);
+                }
+            }
+        }
+
+        private void setParameter(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static boolean isIdentityMethod(Method method) {
+        return method.getName().equals("equals") || method.getName().equals("hashCode");
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
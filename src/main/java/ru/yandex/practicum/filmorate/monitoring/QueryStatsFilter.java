@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+// Добавляет к ответу число SQL-выражений и суммарное время в БД, затраченные на запрос.
+// Заголовки выставляются перед записью тела, пока ответ ещё не отправлен клиенту
+// Выражения потоковых ответов (StreamingResponseBody) выполняются в другом потоке и не учитываются
+@Component
+@ConditionalOnProperty(name = "filmorate.monitoring.query-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatsFilter extends OncePerRequestFilter {
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.start();
+        HttpServletResponseWrapper wrapper = new HttpServletResponseWrapper(response) {
+            @Override
+            public ServletOutputStream getOutputStream() throws IOException {
+                writeHeaders(response, stats);
+                return super.getOutputStream();
+            }
+
+            @Override
+            public PrintWriter getWriter() throws IOException {
+                writeHeaders(response, stats);
+                return super.getWriter();
+            }
+
+            @Override
+            public void flushBuffer() throws IOException {
+                writeHeaders(response, stats);
+                super.flushBuffer();
+            }
+        };
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            writeHeaders(response, stats);
+            QueryStats.stop();
+        }
+    }
+
+    private static void writeHeaders(HttpServletResponse response, QueryStats stats) {
+        if (!response.isCommitted()) {
+            response.setHeader(QUERY_COUNT_HEADER, String.valueOf(stats.getStatementCount()));
+            response.setHeader(QUERY_TIME_HEADER, String.format(Locale.ROOT, "%.3f", stats.getElapsedMillis()));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Перехватчик, замеряющий время обработки запроса по маршрутам. Гистограмма маршрута создаётся при первом
+// обращении к нему и ищется по методу контроллера. Время начала хранится в атрибуте запроса, а не в потоке:
+// на виртуальных потоках у каждого запроса новый поток, а асинхронный ответ завершается в другом
+@Component
+public class RouteLatencyRecorder implements AsyncHandlerInterceptor {
+    private static final String START_ATTRIBUTE = RouteLatencyRecorder.class.getName() + ".start";
+
+    private final ConcurrentMap<Method, Route> routes = new ConcurrentHashMap<>();
+
+    // Повторный вход после асинхронной обработки не сбрасывает время начала исходного запроса
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    // Вместо afterCompletion первого прохода: запрос ещё не завершён, он будет записан
+    // в afterCompletion асинхронного прохода, когда тело ответа (например, StreamingResponseBody) дописано
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod)
+                || !(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        Route route = routes.get(handlerMethod.getMethod());
+        if (route == null) {
+            route = routes.computeIfAbsent(handlerMethod.getMethod(), method -> new Route(
+                    request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+                    new LatencyHistogram()));
+        }
+        route.histogram().recordNanos(elapsed);
+    }
+
+    // Интервальный снимок охватывает время с предыдущего вызова
+    public List<RouteMetrics> getMetrics() {
+        return routes.values().stream()
+                .sorted(Comparator.comparing(Route::name))
+                .map(route -> new RouteMetrics(
+                        route.name(),
+                        route.histogram().intervalSnapshot(),
+                        route.histogram().snapshot()))
+                .toList();
+    }
+
+    private record Route(String name, LatencyHistogram histogram) {
+    }
+
+    public record RouteMetrics(String route, LatencyHistogram.Snapshot interval, LatencyHistogram.Snapshot cumulative) {
+    }
+}
@@ -0,0 +1,211 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+// Журнал медленных SQL-выражений: кольцевой буфер последних записей с именем константы запроса,
+// параметрами и длительностью. Для части записей в фоне снимается план H2 EXPLAIN ANALYZE
+@Slf4j
+@Component
+public class SlowQueryLog {
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<![:\\w]):[A-Za-z_]\\w*");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // SELECT из OLD/NEW/FINAL TABLE выполняет вложенный INSERT/UPDATE/DELETE, FOR UPDATE берёт блокировки
+    private static final Pattern DATA_CHANGE = Pattern.compile(
+            "\\b(OLD|NEW|FINAL)\\s+TABLE\\b|\\bFOR\\s+UPDATE\\b", Pattern.CASE_INSENSITIVE);
+
+    private final DataSource dataSource;
+    private final ApplicationContext applicationContext;
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final int explainEvery;
+    private final AtomicReferenceArray<SlowQuery> entries;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong slowCount = new AtomicLong();
+    private final ExecutorService explainExecutor;
+
+    private volatile Map<String, String> queryNames = Collections.emptyMap();
+
+    public SlowQueryLog(
+            DataSource dataSource,
+            ApplicationContext applicationContext,
+            @Value("${filmorate.monitoring.slow-queries.enabled:true}") boolean enabled,
+            @Value("${filmorate.monitoring.slow-queries.threshold-ms:200}") long thresholdMs,
+            @Value("${filmorate.monitoring.slow-queries.capacity:100}") int capacity,
+            @Value("${filmorate.monitoring.slow-queries.explain-every:10}") int explainEvery
+    ) {
+        this.dataSource = dataSource;
+        this.applicationContext = applicationContext;
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.explainEvery = explainEvery;
+        this.entries = new AtomicReferenceArray<>(Math.max(capacity, 1));
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(16), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Имена берутся из строковых констант репозиториев: ключом служит текст запроса без пробельных различий,
+    // именованные параметры и развёрнутые списки IN (?, ?, ...) приводятся к одному '?'
+    @EventListener(ContextRefreshedEvent.class)
+    public void collectQueryNames() {
+        Map<String, String> names = new HashMap<>();
+        for (Object repository : applicationContext.getBeansWithAnnotation(Repository.class).values()) {
+            Class<?> type = AopUtils.getTargetClass(repository);
+            for (Field field : type.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers) && field.getType() == String.class) {
+                    try {
+                        field.setAccessible(true);
+                        names.putIfAbsent(normalize((String) field.get(null)),
+                                type.getSimpleName() + "." + field.getName());
+                    } catch (IllegalAccessException | RuntimeException e) {
+                        log.debug("Не удалось прочитать константу {}.{}", type.getSimpleName(), field.getName(), e);
+                    }
+                }
+            }
+        }
+        queryNames = names;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(String sql, List<Object> parameters, long nanos) {
+        if (!enabled || nanos < thresholdNanos || sql == null || sql.startsWith("EXPLAIN")) {
+            return;
+        }
+
+        List<Object> values = parameters == null ? Collections.emptyList() : new ArrayList<>(parameters);
+        SlowQuery entry = new SlowQuery(
+                Instant.now(),
+                queryNames.getOrDefault(normalize(sql), "UNKNOWN"),
+                sql,
+                values.stream().map(String::valueOf).toList(),
+                nanos / 1_000_000.0,
+                null
+        );
+        log.warn("Медленный запрос {} ({} мс)", entry.name(), entry.durationMs());
+
+        if (explainEvery > 0 && slowCount.getAndIncrement() % explainEvery == 0 && isSelect(sql)) {
+            try {
+                explainExecutor.execute(() -> add(entry.withPlan(explain(sql, values))));
+                return;
+            } catch (RejectedExecutionException e) {
+                log.debug("Очередь EXPLAIN переполнена, запрос {} сохранён без плана", entry.name());
+            }
+        }
+        add(entry);
+    }
+
+    // Последние записи, новые первыми
+    public List<SlowQuery> getEntries() {
+        long last = sequence.get();
+        int size = (int) Math.min(last, entries.length());
+        List<SlowQuery> result = new ArrayList<>(size);
+        for (long seq = last - 1; seq >= last - size; seq--) {
+            SlowQuery entry = entries.get((int) (seq % entries.length()));
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        for (int idx = 0; idx < entries.length(); idx++) {
+            entries.set(idx, null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    private void add(SlowQuery entry) {
+        long seq = sequence.getAndIncrement();
+        entries.set((int) (seq % entries.length()), entry);
+    }
+
+    // Выполняется в отдельном потоке, поэтому сам EXPLAIN не попадает в счётчики запроса
+    private String explain(String sql, List<Object> parameters) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("EXPLAIN ANALYZE " + sql)) {
+            for (int idx = 0; idx < parameters.size(); idx++) {
+                ps.setObject(idx + 1, parameters.get(idx));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1));
+                }
+                return plan.toString();
+            }
+        } catch (SQLException e) {
+            log.debug("Не удалось получить план запроса", e);
+            return "EXPLAIN недоступен: " + e.getMessage();
+        }
+    }
+
+    // EXPLAIN ANALYZE выполняет выражение повторно, поэтому план снимается только с чистых чтений:
+    // SELECT поверх изменения данных второй раз удалил бы или вставил строки
+    private static boolean isSelect(String sql) {
+        String start = sql.stripLeading();
+        boolean select = start.regionMatches(true, 0, "SELECT", 0, 6) || start.regionMatches(true, 0, "WITH", 0, 4);
+        return select && !DATA_CHANGE.matcher(sql).find();
+    }
+
+    private static String normalize(String sql) {
+        String result = NAMED_PARAMETER.matcher(sql).replaceAll("?");
+        result = PARAMETER_LIST.matcher(result).replaceAll("?");
+        return WHITESPACE.matcher(result).replaceAll(" ").strip();
+    }
+
+    public record SlowQuery(
+            Instant timestamp,
+            String name,
+            String sql,
+            List<String> parameters,
+            double durationMs,
+            String plan
+    ) {
+        SlowQuery withPlan(String plan) {
+            return new SlowQuery(timestamp, name, sql, parameters, durationMs, plan);
+        }
+    }
+}
@@ -2,35 +2,70 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.dto.PageDto;
 import ru.yandex.practicum.filmorate.dto.film.FilmDto;
 import ru.yandex.practicum.filmorate.dto.film.NewFilmRequest;
 import ru.yandex.practicum.filmorate.dto.film.UpdateFilmRequest;
 import ru.yandex.practicum.filmorate.dto.genre.GenreRequest;
+import ru.yandex.practicum.filmorate.event.FilmCreatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmUpdatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.event.LikeRemovedEvent;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.FilmMapper;
 import ru.yandex.practicum.filmorate.model.film.Film;
 import ru.yandex.practicum.filmorate.model.film.Genre;
-import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.model.film.MPA;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.cache.FilmCache;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
 import ru.yandex.practicum.filmorate.storage.dal.LikeRepository;
-import ru.yandex.practicum.filmorate.storage.dal.MpaRepository;
+import ru.yandex.practicum.filmorate.storage.dal.LikeWriteBuffer;
+import ru.yandex.practicum.filmorate.storage.index.FilmFilterIndex;
+import ru.yandex.practicum.filmorate.storage.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.index.LikeBitmapIndex;
+import ru.yandex.practicum.filmorate.storage.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.storage.index.TrendingIndex;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FilmService {
+    private static final int EXPORT_CHUNK_SIZE = 500;
 
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
-    private final MpaRepository mpaRepository;
+    private final ReferenceDataCache referenceDataCache;
     private final GenreRepository genreRepository;
     private final LikeRepository likeRepository;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final PopularityIndex popularityIndex;
+    private final LikeBitmapIndex likeBitmapIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final FilmFilterIndex filmFilterIndex;
+    private final TrendingIndex trendingIndex;
+    private final FilmCache filmCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${filmorate.films.popular-from-storage:false}")
+    private boolean popularFromStorage;
+
+    @Value("${filmorate.films.batch.chunk-size:1000}")
+    private int batchChunkSize;
 
 
     public List<FilmDto> getFilms() {
@@ -42,40 +77,126 @@ public class FilmService {
                 .collect(Collectors.toList());
     }
 
+    public PageDto<FilmDto> getFilms(long afterId, int limit) {
+        log.debug("Получение страницы фильмов после ID: {} (размер: {})", afterId, limit);
+        List<Film> films = filmStorage.getFilms(afterId, limit + 1);
+        boolean hasNext = films.size() > limit;
+        List<Film> page = hasNext ? films.subList(0, limit) : films;
+        loadAdditionalData(page);
+
+        return PageDto.<FilmDto>builder()
+                .items(page.stream()
+                        .map(FilmMapper::mapToFilmDto)
+                        .collect(Collectors.toList()))
+                .nextCursor(hasNext ? page.getLast().getId() : null)
+                .build();
+    }
+
+    // Выгрузка страницами по ключу: каждая страница читается и догружается отдельными запросами, поэтому
+    // соединение с БД не удерживается, пока клиент медленно принимает ответ
+    public void exportFilms(Consumer<FilmDto> consumer) {
+        log.debug("Выгрузка всех фильмов страницами по {}", EXPORT_CHUNK_SIZE);
+        long afterId = 0;
+        List<Film> chunk;
+        do {
+            chunk = filmStorage.getFilms(afterId, EXPORT_CHUNK_SIZE);
+            if (chunk.isEmpty()) {
+                return;
+            }
+            afterId = chunk.getLast().getId();
+            loadAdditionalData(chunk);
+            chunk.forEach(film -> consumer.accept(FilmMapper.mapToFilmDto(film)));
+        } while (chunk.size() == EXPORT_CHUNK_SIZE);
+    }
+
     public FilmDto getFilm(Long filmId) {
         log.info("Получение фильма с ID: {}", filmId);
-        Film film = filmStorage.getFilm(filmId);
-        loadAdditionalData(film);
+        Film film = filmCache.get(filmId, id -> {
+            Film loaded = filmStorage.getFilm(id);
+            loadAdditionalData(loaded);
+            return loaded;
+        });
         return FilmMapper.mapToFilmDto(film);
     }
 
     public FilmDto create(NewFilmRequest request) {
         log.debug("Создание нового фильма: {}", request);
         Film film = FilmMapper.mapToFilm(request);
-        film.setMpa(mpaRepository.findById(request.getMpa().getId()));
+        film.setMpa(referenceDataCache.getMpa(request.getMpa().getId()));
+        // Справочники проверяются до записи, чтобы ошибка не оставляла фильм без жанров
+        Set<Long> genreIds = validateGenres(request.getGenres());
 
-        filmStorage.create(film);
+        transactionTemplate.executeWithoutResult(status -> {
+            filmStorage.create(film);
+            genreRepository.saveGenres(film.getId(), genreIds);
+        });
+        film.setGenres(referenceDataCache.getGenres(genreIds));
         log.info("Создан новый фильм с ID: {}", film.getId());
-
-        Set<Long> genreIds = validateGenres(request.getGenres());
-        genreRepository.saveGenres(film.getId(), genreIds);
-        film.setGenres(genreRepository.findByFilmId(film.getId()));
+        eventPublisher.publishEvent(new FilmCreatedEvent(film));
 
         return FilmMapper.mapToFilmDto(film);
     }
 
-    public FilmDto update(UpdateFilmRequest request) {
-        log.debug("Обновление фильма с ID: {}", request.getId());
-        Film film = filmStorage.getFilm(request.getId());
-        FilmMapper.updateFilmFromRequest(request, film);
+    public List<Long> createBatch(List<NewFilmRequest> requests) {
+        log.debug("Пакетное создание фильмов: {}", requests.size());
+        // Справочники проверяются один раз на весь пакет
+        validateGenres(requests.stream()
+                .map(NewFilmRequest::getGenres)
+                .filter(Objects::nonNull)
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet()));
+        Map<Long, MPA> mpaById = requests.stream()
+                .map(request -> request.getMpa().getId())
+                .distinct()
+                .collect(Collectors.toMap(id -> id, referenceDataCache::getMpa));
+
+        List<Film> films = requests.stream()
+                .map(request -> {
+                    Film film = FilmMapper.mapToFilm(request);
+                    film.setMpa(mpaById.get(request.getMpa().getId()));
+                    film.setGenres(referenceDataCache.getGenres(request.getGenres() == null
+                            ? Collections.emptySet()
+                            : request.getGenres().stream().map(GenreRequest::getId).toList()));
+                    return film;
+                })
+                .toList();
 
-        film.setMpa(mpaRepository.findById(request.getMpa().getId()));
+        List<Long> ids = new ArrayList<>(films.size());
+        for (int from = 0; from < films.size(); from += batchChunkSize) {
+            List<Film> chunk = films.subList(from, Math.min(from + batchChunkSize, films.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                filmStorage.createAll(chunk);
+                genreRepository.saveGenres(chunk.stream()
+                        .collect(Collectors.toMap(Film::getId, film -> film.getGenres().stream()
+                                .map(Genre::getId)
+                                .collect(Collectors.toSet()))));
+            });
+            chunk.forEach(film -> {
+                ids.add(film.getId());
+                eventPublisher.publishEvent(new FilmCreatedEvent(film));
+            });
+        }
+        log.info("Пакетно создано фильмов: {}", ids.size());
+
+        return ids;
+    }
 
+    public FilmDto update(UpdateFilmRequest request) {
+        log.debug("Обновление фильма с ID: {}", request.getId());
+        MPA mpa = referenceDataCache.getMpa(request.getMpa().getId());
         Set<Long> genreIds = validateGenres(request.getGenres());
-        genreRepository.updateGenres(film.getId(), genreIds);
-        film.setGenres(genreRepository.findByFilmId(film.getId()));
 
-        filmStorage.update(film);
+        Film film = transactionTemplate.execute(status -> {
+            Film current = filmStorage.getFilm(request.getId());
+            FilmMapper.updateFilmFromRequest(request, current);
+            current.setMpa(mpa);
+            filmStorage.update(current);
+            genreRepository.updateGenres(current.getId(), genreIds);
+            return current;
+        });
+        // Жанры берутся из справочника: после записи их не нужно перечитывать из БД
+        film.setGenres(referenceDataCache.getGenres(genreIds));
+        eventPublisher.publishEvent(new FilmUpdatedEvent(film));
         log.info("Обновлен фильм с ID: {}", film.getId());
 
         return FilmMapper.mapToFilmDto(film);
@@ -83,35 +204,107 @@ public class FilmService {
 
     public void deleteFilms() {
         filmStorage.deleteFilms();
+        eventPublisher.publishEvent(new FilmsDeletedEvent());
         log.info("Все фильмы успешно удалены");
     }
 
     public void addLike(Long filmId, Long userId) {
         log.debug("Добавление лайка пользователю {} для фильма {}", userId, filmId);
-        Film film = filmStorage.getFilm(filmId);
-        User user = userStorage.getUser(userId);
-        film.getLikes().add(userId);
-        likeRepository.addLike(filmId, userId);
+        if (likeWriteBuffer.isEnabled()) {
+            // Отложенная запись не может сообщить об ошибке, поэтому фильм и пользователь проверяются сразу
+            filmStorage.getFilm(filmId);
+            userStorage.getUser(userId);
+            likeWriteBuffer.addLike(filmId, userId);
+        } else {
+            // Одно выражение: отсутствие фильма или пользователя и повторный лайк сообщают ограничения БД
+            Instant likedAt = likeRepository.addLike(filmId, userId);
+            eventPublisher.publishEvent(new LikeAddedEvent(filmId, userId, likedAt));
+        }
         log.info("Лайк успешно добавлен пользователю {} для фильма {}", userId, filmId);
     }
 
     public void removeLike(Long filmId, Long userId) {
         log.debug("Удаление лайка пользователя {} для фильма {}", userId, filmId);
-        Film film = filmStorage.getFilm(filmId);
-        User user = userStorage.getUser(userId);
-        film.getLikes().remove(userId);
-        likeRepository.removeLike(filmId, userId);
+        if (likeWriteBuffer.isEnabled()) {
+            filmStorage.getFilm(filmId);
+            userStorage.getUser(userId);
+            likeWriteBuffer.removeLike(filmId, userId);
+        } else {
+            Optional<Instant> likedAt = likeRepository.removeLike(filmId, userId);
+            if (likedAt.isPresent()) {
+                eventPublisher.publishEvent(new LikeRemovedEvent(filmId, userId, likedAt.get()));
+            } else {
+                // Лайка не было: проверки нужны только для ответа 404 на несуществующий фильм или пользователя
+                filmStorage.getFilm(filmId);
+                userStorage.getUser(userId);
+            }
+        }
         log.info("Лайк удален у пользователя {} для фильма {}", userId, filmId);
     }
 
     public List<FilmDto> getPopularFilms(int count) {
         log.debug("Получение популярных фильмов (количество: {})", count);
-        List<Film> allFilms = filmStorage.getFilms();
-        loadAdditionalData(allFilms);
+        List<Film> films = popularFromStorage
+                ? filmStorage.getPopularFilms(count)
+                : filmStorage.getFilmsByIds(popularityIndex.getTopFilmIds(count));
+        loadAdditionalData(films);
+
+        return films.stream()
+                .map(FilmMapper::mapToFilmDto)
+                .collect(Collectors.toList());
+    }
+
+    public List<FilmDto> getPopularFilms(int count, Long genreId, Long mpaId, Integer year) {
+        if (genreId != null && referenceDataCache.findGenre(genreId).isEmpty()) {
+            throw new NotFoundException("Жанр с ID=" + genreId + " не найден");
+        }
+        if (mpaId != null) {
+            referenceDataCache.getMpa(mpaId);
+        }
+
+        Optional<RoaringBitmap> filter = filmFilterIndex.match(genreId, mpaId, year);
+        if (filter.isEmpty()) {
+            return getPopularFilms(count);
+        }
+
+        log.debug("Получение популярных фильмов (количество: {}, жанр: {}, MPA: {}, год: {})",
+                count, genreId, mpaId, year);
+        List<Film> films = filmStorage.getFilmsByIds(popularityIndex.getTopFilmIds(count, filter.get()));
+        loadAdditionalData(films);
+
+        return films.stream()
+                .map(FilmMapper::mapToFilmDto)
+                .collect(Collectors.toList());
+    }
+
+    public List<FilmDto> getTrendingFilms(String window, int count) {
+        log.debug("Получение фильмов в тренде (окно: {}, количество: {})", window, count);
+        TrendingIndex.Window trendingWindow = TrendingIndex.Window.of(window);
+        List<Film> films = filmStorage.getFilmsByIds(trendingIndex.getTopFilmIds(trendingWindow, count));
+        loadAdditionalData(films);
+
+        return films.stream()
+                .map(FilmMapper::mapToFilmDto)
+                .collect(Collectors.toList());
+    }
+
+    public List<FilmDto> searchFilms(String query, int limit) {
+        log.debug("Поиск фильмов по запросу '{}' (количество: {})", query, limit);
+        List<Film> films = filmStorage.getFilmsByIds(filmSearchIndex.search(query, limit));
+        loadAdditionalData(films);
 
-        return allFilms.stream()
-                .sorted(Comparator.comparingInt(Film::getLikesCount).reversed())
-                .limit(count)
+        return films.stream()
+                .map(FilmMapper::mapToFilmDto)
+                .collect(Collectors.toList());
+    }
+
+    public List<FilmDto> getRecommendations(Long userId, int count) {
+        log.debug("Получение рекомендаций для пользователя {} (количество: {})", userId, count);
+        userStorage.getUser(userId);
+        List<Film> films = filmStorage.getFilmsByIds(likeBitmapIndex.recommend(userId, count));
+        loadAdditionalData(films);
+
+        return films.stream()
                 .map(FilmMapper::mapToFilmDto)
                 .collect(Collectors.toList());
     }
@@ -125,7 +318,7 @@ public class FilmService {
                 .map(GenreRequest::getId)
                 .collect(Collectors.toSet());
 
-        Set<Long> existingIds = genreRepository.getExistingIds(requestedIds);
+        Set<Long> existingIds = referenceDataCache.getExistingGenreIds(requestedIds);
 
         if (existingIds.size() != requestedIds.size()) {
             Set<Long> missingIds = new HashSet<>(requestedIds);
@@ -136,9 +329,9 @@ public class FilmService {
         return requestedIds;
     }
 
+    // Число лайков приходит из колонки likes_count вместе с фильмом, догружаются только жанры
     private void loadAdditionalData(Film film) {
-        film.setGenres(genreRepository.findByFilmId(film.getId()));
-        film.setLikes(likeRepository.getLikes(film.getId()));
+        film.setGenres(referenceDataCache.getGenres(genreRepository.findGenreIdsByFilmId(film.getId())));
     }
 
     private void loadAdditionalData(List<Film> films) {
@@ -150,12 +343,8 @@ public class FilmService {
                 .map(Film::getId)
                 .collect(Collectors.toSet());
 
-        Map<Long, Set<Genre>> genres = genreRepository.findGenresForFilms(filmIds);
-        Map<Long, Set<Long>> likes = likeRepository.findLikesForFilms(filmIds);
-
-        films.forEach(film -> {
-            film.setGenres(genres.getOrDefault(film.getId(), Collections.emptySet()));
-            film.setLikes(likes.getOrDefault(film.getId(), Collections.emptySet()));
-        });
+        Map<Long, Set<Long>> genreIds = genreRepository.findGenreIdsForFilms(filmIds);
+        films.forEach(film -> film.setGenres(referenceDataCache.getGenres(
+                genreIds.getOrDefault(film.getId(), Collections.emptySet()))));
     }
 }
\ No newline at end of file
@@ -6,7 +6,7 @@ import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dto.genre.GenreDto;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.GenreMapper;
-import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -15,18 +15,18 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class GenreService {
-    private final GenreRepository genreRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     public List<GenreDto> getAllGenres() {
         log.debug("Получение всех жанров");
-        return genreRepository.getAllGenres().stream()
+        return referenceDataCache.getAllGenres().stream()
                 .map(GenreMapper::mapToGenreDto)
                 .collect(Collectors.toList());
     }
 
     public GenreDto getGenreById(Long id) {
         log.debug("Получение жанра с ID: {}", id);
-        return genreRepository.findById(id)
+        return referenceDataCache.findGenre(id)
                 .map(GenreMapper::mapToGenreDto)
                 .orElseThrow(() -> new NotFoundException("Жанр с id=" + id + " не найден"));
     }
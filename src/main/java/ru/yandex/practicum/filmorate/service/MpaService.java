@@ -6,7 +6,7 @@ import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dto.mpa.MpaDto;
 import ru.yandex.practicum.filmorate.mapper.MpaMapper;
 import ru.yandex.practicum.filmorate.model.film.MPA;
-import ru.yandex.practicum.filmorate.storage.dal.MpaRepository;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -15,18 +15,18 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class MpaService {
-    private final MpaRepository mpaRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     public List<MpaDto> getAllMpa() {
         log.debug("Получение всех рейтингов MPA");
-        return mpaRepository.findAll().stream()
+        return referenceDataCache.getAllMpa().stream()
                 .map(MpaMapper::mapToMpaDto)
                 .collect(Collectors.toList());
     }
 
     public MpaDto getMpaById(Long id) {
         log.debug("Получение рейтинга MPA с ID: {}", id);
-        MPA mpa = mpaRepository.findById(id);
+        MPA mpa = referenceDataCache.getMpa(id);
         return MpaMapper.mapToMpaDto(mpa);
     }
 }
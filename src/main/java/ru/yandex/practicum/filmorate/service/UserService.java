@@ -2,20 +2,31 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.concurrent.StructuredExecutor;
+import ru.yandex.practicum.filmorate.dto.PageDto;
 import ru.yandex.practicum.filmorate.dto.user.NewUserRequest;
 import ru.yandex.practicum.filmorate.dto.user.UpdateUserRequest;
 import ru.yandex.practicum.filmorate.dto.user.UserDto;
+import ru.yandex.practicum.filmorate.event.FriendAddedEvent;
+import ru.yandex.practicum.filmorate.event.FriendRemovedEvent;
+import ru.yandex.practicum.filmorate.event.LikeRemovedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
 import ru.yandex.practicum.filmorate.exception.BadRequestException;
-import ru.yandex.practicum.filmorate.exception.ConflictException;
 import ru.yandex.practicum.filmorate.mapper.UserMapper;
-import ru.yandex.practicum.filmorate.model.user.Friends;
 import ru.yandex.practicum.filmorate.model.user.User;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 import ru.yandex.practicum.filmorate.storage.dal.FriendshipRepository;
+import ru.yandex.practicum.filmorate.storage.dal.LikeRepository;
 import ru.yandex.practicum.filmorate.storage.dal.UserRepository;
+import ru.yandex.practicum.filmorate.storage.index.FriendshipGraph;
 
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -25,6 +36,10 @@ public class UserService {
     private final UserStorage userStorage;
     private final UserRepository userRepository;
     private final FriendshipRepository friendshipRepository;
+    private final LikeRepository likeRepository;
+    private final FriendshipGraph friendshipGraph;
+    private final StructuredExecutor structuredExecutor;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Методы для работы с пользователями
     public List<UserDto> getUsers() {
@@ -34,6 +49,20 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    public PageDto<UserDto> getUsers(long afterId, int limit) {
+        log.debug("Получение страницы пользователей после ID: {} (размер: {})", afterId, limit);
+        List<User> users = userStorage.getUsers(afterId, limit + 1);
+        boolean hasNext = users.size() > limit;
+        List<User> page = hasNext ? users.subList(0, limit) : users;
+
+        return PageDto.<UserDto>builder()
+                .items(page.stream()
+                        .map(UserMapper::mapToUserDto)
+                        .collect(Collectors.toList()))
+                .nextCursor(hasNext ? page.getLast().getId() : null)
+                .build();
+    }
+
     public UserDto getUserById(Long userId) {
         log.debug("Получение пользователя с ID: {}", userId);
         User user = validateUser(userId);
@@ -60,67 +89,96 @@ public class UserService {
     public void deleteUser(Long userId) {
         log.debug("Удаление пользователя с ID: {}", userId);
         validateUser(userId);
+        Map<Long, Instant> likes = likeRepository.findLikesBy(userId);
+        // Лайки удаляются до пользователя, чтобы вместе с ними уменьшились счётчики фильмов
+        likeRepository.removeLikesBy(userId);
         userStorage.delete(userId);
+        likes.forEach((filmId, likedAt) ->
+                eventPublisher.publishEvent(new LikeRemovedEvent(filmId, userId, likedAt)));
+        eventPublisher.publishEvent(new UserDeletedEvent(userId));
         log.info("Удален пользователь с ID: {}", userId);
     }
 
     // Методы для работы с друзьями
     public UserDto addFriend(Long userId, Long friendId) {
         log.debug("Добавление друга для пользователя: {} friend: {}", userId, friendId);
-        User user = validateUser(userId);
-        validateUser(friendId);
-
-        if (friendshipRepository.friendshipExists(userId, friendId)) {
-            throw new ConflictException("Запрос на дружбу уже отправлен");
-        }
-
+        // Как и раньше, отсутствующий пользователь важнее запрета дружбы с собой: 404, а не 400
         if (userId.equals(friendId)) {
+            validateUser(userId);
             throw new BadRequestException("Пользователь не может добавить сам себя в друзья");
         }
 
+        // Одно выражение: отсутствие пользователей и повторный запрос сообщают ограничения БД
         friendshipRepository.addFriend(userId, friendId);
-        user.getFriends().add(friendId);
-        userStorage.update(user);
+        eventPublisher.publishEvent(new FriendAddedEvent(userId, friendId));
         log.info("Добавлен друг для пользователя: {} friend: {}", userId, friendId);
+
+        // Ответ — профиль пользователя, которого запись дружбы не возвращает: это второй и последний запрос
+        User user = validateUser(userId);
+        user.getFriends().add(friendId);
         return UserMapper.mapToUserDto(user);
     }
 
     public List<UserDto> getUserFriends(Long userId) {
         log.debug("Получение списка друзей для пользователя: {}", userId);
-        validateUser(userId);
-        List<Friends> friendships = friendshipRepository.getFriends(userId);
-
-        return friendships.stream()
-                .map(friendship -> validateUser(friendship.getFriendId()))
-                .map(UserMapper::mapToUserDto)
-                .collect(Collectors.toList());
+        // Проверка пользователя и загрузка друзей независимы и при включённом режиме идут параллельно
+        try (StructuredExecutor.Scope scope = structuredExecutor.open()) {
+            scope.fork(() -> validateUser(userId));
+            Supplier<List<User>> friends = scope.fork(() -> friendshipGraph.isEnabled()
+                    ? findUsers(friendshipGraph.getFriendIds(userId))
+                    // Друзья загружаются одним запросом вместе с профилями
+                    : friendshipRepository.getFriendProfiles(userId));
+            scope.join();
+            return mapToUserDtos(friends.get());
+        }
     }
 
     public List<UserDto> getCommonFriends(Long userId, Long otherId) {
         log.debug("Получение общих друзей для пользователей: {} и {}", userId, otherId);
-        validateUser(userId);
-        validateUser(otherId);
-
-        List<User> commonFriends = friendshipRepository.getCommonFriends(userId, otherId);
-
-        return commonFriends.stream()
-                .map(UserMapper::mapToUserDto)
-                .collect(Collectors.toList());
+        try (StructuredExecutor.Scope scope = structuredExecutor.open()) {
+            scope.fork(() -> validateUser(userId));
+            scope.fork(() -> validateUser(otherId));
+            Supplier<List<User>> commonFriends = scope.fork(() -> friendshipGraph.isEnabled()
+                    ? findUsers(friendshipGraph.getCommonFriendIds(userId, otherId))
+                    : friendshipRepository.getCommonFriends(userId, otherId));
+            scope.join();
+            return mapToUserDtos(commonFriends.get());
+        }
     }
 
+    public List<UserDto> getFriendSuggestions(Long userId, int count) {
+        log.debug("Получение рекомендаций друзей для пользователя: {} (количество: {})", userId, count);
+        validateUser(userId);
+        List<User> suggestions = friendshipGraph.isEnabled()
+                ? findUsers(friendshipGraph.suggestFriendIds(userId, count))
+                : userStorage.getUsersByIds(
+                        friendshipRepository.getSuggestedFriendIds(userId, count, friendshipGraph.getMaxFanOut()));
+        return mapToUserDtos(suggestions);
+    }
 
     public void removeFriend(Long userId, Long friendId) {
         log.debug("Удаление друга для пользователя: {} friend: {}", userId, friendId);
-        User user = validateUser(userId);
-        User friend = validateUser(friendId);
+        if (friendshipRepository.removeFriend(userId, friendId)) {
+            eventPublisher.publishEvent(new FriendRemovedEvent(userId, friendId));
+            return;
+        }
 
-        friendshipRepository.removeFriend(userId, friendId);
+        // Дружбы не было: проверки нужны только для ответа 404 на несуществующего пользователя
+        try (StructuredExecutor.Scope scope = structuredExecutor.open()) {
+            scope.fork(() -> validateUser(userId));
+            scope.fork(() -> validateUser(friendId));
+            scope.join();
+        }
+    }
 
-        user.getFriends().remove(friendId);
-        friend.getFriends().remove(userId);
+    private List<User> findUsers(long[] userIds) {
+        return userStorage.getUsersByIds(Arrays.stream(userIds).boxed().toList());
+    }
 
-        userStorage.update(user);
-        userStorage.update(friend);
+    private List<UserDto> mapToUserDtos(List<User> users) {
+        return users.stream()
+                .map(UserMapper::mapToUserDto)
+                .collect(Collectors.toList());
     }
 
     private User validateUser(Long userId) {
@@ -3,16 +3,27 @@ package ru.yandex.practicum.filmorate.storage;
 import ru.yandex.practicum.filmorate.model.film.Film;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public interface FilmStorage {
 
     List<Film> getFilms();
 
+    List<Film> getFilms(long afterId, int limit);
+
+    void streamFilms(int fetchSize, Consumer<Film> consumer);
+
     Film getFilm(Long filmId);
 
+    List<Film> getFilmsByIds(List<Long> filmIds);
+
+    List<Film> getPopularFilms(int count);
+
     void create(Film film);
 
+    void createAll(List<Film> films);
+
     void update(Film film);
 
     void deleteFilms();
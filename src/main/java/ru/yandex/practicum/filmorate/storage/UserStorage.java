@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.user.User;
 
+import java.util.Collection;
 import java.util.List;
 
 
@@ -9,8 +10,12 @@ public interface UserStorage {
 
     List<User> getUsers();
 
+    List<User> getUsers(long afterId, int limit);
+
     User getUser(Long userId);
 
+    List<User> getUsersByIds(Collection<Long> userIds);
+
     void create(User user);
 
     void update(User user);
@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmUpdatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.event.LikeRemovedEvent;
+import ru.yandex.practicum.filmorate.event.LikesCountsReconciledEvent;
+import ru.yandex.practicum.filmorate.model.film.Film;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Кэш фильмов с жанрами и числом лайков. Вытесняются давно не запрашиваемые фильмы (LRU).
+// Любое событие по фильму убирает его из кэша: событие лайка приходит уже после записи в БД, и копия,
+// загруженная в этом промежутке, уже содержит новый счётчик — правка ±1 посчитала бы лайк дважды
+@Component
+public class FilmCache {
+    private final int maxSize;
+    private final Map<Long, Film> films;
+    // Загрузки, начатые до события по фильму, не должны положить в кэш устаревшие данные
+    private final ConcurrentMap<Long, Object> pendingLoads = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public FilmCache(@Value("${filmorate.films.cache.max-size:1000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.films = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Film> eldest) {
+                boolean evict = size() > FilmCache.this.maxSize;
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    public Film get(Long filmId, Function<Long, Film> loader) {
+        if (maxSize <= 0) {
+            return loader.apply(filmId);
+        }
+
+        synchronized (films) {
+            Film cached = films.get(filmId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        misses.incrementAndGet();
+        Object token = new Object();
+        pendingLoads.put(filmId, token);
+        Film loaded;
+        try {
+            loaded = loader.apply(filmId);
+        } catch (RuntimeException e) {
+            pendingLoads.remove(filmId, token);
+            throw e;
+        }
+
+        synchronized (films) {
+            if (pendingLoads.remove(filmId, token)) {
+                films.put(filmId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public void invalidate(Long filmId) {
+        synchronized (films) {
+            pendingLoads.remove(filmId);
+            films.remove(filmId);
+        }
+    }
+
+    public void clear() {
+        synchronized (films) {
+            pendingLoads.clear();
+            films.clear();
+        }
+    }
+
+    public Stats getStats() {
+        synchronized (films) {
+            return new Stats(films.size(), maxSize, hits.get(), misses.get(), evictions.get());
+        }
+    }
+
+    @EventListener
+    public void onFilmUpdated(FilmUpdatedEvent event) {
+        invalidate(event.film().getId());
+    }
+
+    @EventListener
+    public void onFilmsDeleted(FilmsDeletedEvent event) {
+        clear();
+    }
+
+    @EventListener
+    public void onLikeAdded(LikeAddedEvent event) {
+        invalidate(event.filmId());
+    }
+
+    @EventListener
+    public void onLikeRemoved(LikeRemovedEvent event) {
+        invalidate(event.filmId());
+    }
+
+    @EventListener
+    public void onLikesCountsReconciled(LikesCountsReconciledEvent event) {
+        event.filmIds().forEach(this::invalidate);
+    }
+
+    public record Stats(int size, int maxSize, long hits, long misses, long evictions) {
+    }
+}
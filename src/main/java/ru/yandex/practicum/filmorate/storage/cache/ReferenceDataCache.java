@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.model.film.MPA;
+import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.dal.MpaRepository;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Справочники MPA и жанров: загружаются целиком при старте и перечитываются только явным вызовом reload()
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataCache {
+    private final MpaRepository mpaRepository;
+    private final GenreRepository genreRepository;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void reload() {
+        List<MPA> mpa = mpaRepository.findAll().stream()
+                .sorted(Comparator.comparing(MPA::getId))
+                .toList();
+        List<Genre> genres = genreRepository.getAllGenres().stream()
+                .sorted(Comparator.comparing(Genre::getId))
+                .toList();
+
+        snapshot = new Snapshot(mpa, indexById(mpa, MPA::getId), genres, indexById(genres, Genre::getId));
+        version.incrementAndGet();
+        log.info("Справочники загружены: MPA — {}, жанров — {}", mpa.size(), genres.size());
+    }
+
+    // Номер загрузки справочников: меняется при каждом reload()
+    public long getVersion() {
+        return version.get();
+    }
+
+    public List<MPA> getAllMpa() {
+        return snapshot.mpa();
+    }
+
+    public Optional<MPA> findMpa(Long id) {
+        return Optional.ofNullable(snapshot.mpaById().get(id));
+    }
+
+    public MPA getMpa(Long id) {
+        return findMpa(id)
+                .orElseThrow(() -> new NotFoundException("MPA с ID=" + id + " не найден"));
+    }
+
+    public List<Genre> getAllGenres() {
+        return snapshot.genres();
+    }
+
+    public Optional<Genre> findGenre(Long id) {
+        return Optional.ofNullable(snapshot.genresById().get(id));
+    }
+
+    public Set<Long> getExistingGenreIds(Set<Long> ids) {
+        Map<Long, Genre> genresById = snapshot.genresById();
+        return ids.stream()
+                .filter(genresById::containsKey)
+                .collect(Collectors.toSet());
+    }
+
+    public Set<Genre> getGenres(Collection<Long> ids) {
+        Map<Long, Genre> genresById = snapshot.genresById();
+        return ids.stream()
+                .sorted()
+                .map(genresById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static <T> Map<Long, T> indexById(List<T> values, Function<T, Long> idExtractor) {
+        return values.stream()
+                .collect(Collectors.toUnmodifiableMap(idExtractor, Function.identity()));
+    }
+
+    private record Snapshot(List<MPA> mpa, Map<Long, MPA> mpaById, List<Genre> genres, Map<Long, Genre> genresById) {
+    }
+}
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmCreatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmUpdatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.event.LikeRemovedEvent;
+import ru.yandex.practicum.filmorate.event.LikesCountsReconciledEvent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Версии фильмов и справочников для ETag. Каждое изменение получает следующий номер общего счётчика,
+// поэтому версия фильма никогда не повторяется, даже после удаления всех фильмов. Метка фильма содержит его id,
+// а сверять её можно только для известных фильмов: созданных, изменённых или найденных в БД после запуска
+@Component
+@RequiredArgsConstructor
+public class ResourceVersions {
+    private final ReferenceDataCache referenceDataCache;
+
+    // Счётчики начинаются заново при каждом запуске, метки прошлых запусков не должны совпасть
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final AtomicLong filmsVersion = new AtomicLong();
+    private final ConcurrentMap<Long, Long> filmVersions = new ConcurrentHashMap<>();
+    // Версия фильмов, не менявшихся с последнего удаления каталога (или с запуска)
+    private volatile long filmsBaseline;
+
+    public String getFilmsTag() {
+        return tag("films", filmsVersion.get());
+    }
+
+    public String getFilmTag(Long filmId) {
+        return tag("film-" + filmId, filmVersions.getOrDefault(filmId, filmsBaseline));
+    }
+
+    // Для неизвестного id метка не сверяется: иначе на несуществующий фильм вместо 404 вернулся бы 304
+    public boolean isFilmKnown(Long filmId) {
+        return filmVersions.containsKey(filmId);
+    }
+
+    // Фильм прочитан из БД с меткой, выданной до чтения. Если с тех пор каталог не удалялся,
+    // фильм запоминается с базовой версией; более новую версию от изменения putIfAbsent не затирает
+    public synchronized void markFilmFound(Long filmId, String etag) {
+        long baseline = filmsBaseline;
+        if (etag.equals(tag("film-" + filmId, baseline))) {
+            filmVersions.putIfAbsent(filmId, baseline);
+        }
+    }
+
+    public String getReferenceDataTag() {
+        return tag("ref", referenceDataCache.getVersion());
+    }
+
+    @EventListener
+    public void onFilmCreated(FilmCreatedEvent event) {
+        touch(event.film().getId());
+    }
+
+    @EventListener
+    public void onFilmUpdated(FilmUpdatedEvent event) {
+        touch(event.film().getId());
+    }
+
+    @EventListener
+    public void onLikeAdded(LikeAddedEvent event) {
+        touch(event.filmId());
+    }
+
+    @EventListener
+    public void onLikeRemoved(LikeRemovedEvent event) {
+        touch(event.filmId());
+    }
+
+    @EventListener
+    public void onLikesCountsReconciled(LikesCountsReconciledEvent event) {
+        event.filmIds().forEach(this::touch);
+    }
+
+    @EventListener
+    public synchronized void onFilmsDeleted(FilmsDeletedEvent event) {
+        filmsBaseline = filmsVersion.incrementAndGet();
+        filmVersions.clear();
+    }
+
+    private void touch(Long filmId) {
+        filmVersions.merge(filmId, filmsVersion.incrementAndGet(), Math::max);
+    }
+
+    private String tag(String resource, long version) {
+        return "\"" + resource + "-" + epoch + "-" + version + "\"";
+    }
+}
@@ -1,9 +1,10 @@
 package ru.yandex.practicum.filmorate.storage.dal;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import ru.yandex.practicum.filmorate.exception.InternalServerException;
 
@@ -12,11 +13,17 @@ import java.sql.Statement;
 import java.util.List;
 import java.util.Optional;
 
-@RequiredArgsConstructor
 public class BaseRepository<T> {
     protected final JdbcTemplate jdbc;
+    protected final NamedParameterJdbcTemplate namedJdbc;
     protected final RowMapper<T> mapper;
 
+    public BaseRepository(JdbcTemplate jdbc, RowMapper<T> mapper) {
+        this.jdbc = jdbc;
+        this.namedJdbc = new NamedParameterJdbcTemplate(jdbc);
+        this.mapper = mapper;
+    }
+
     protected Optional<T> findOne(String query, Object... params) {
         try {
             T result = jdbc.queryForObject(query, mapper, params);
@@ -30,6 +37,10 @@ public class BaseRepository<T> {
         return jdbc.query(query, mapper, params);
     }
 
+    protected List<T> findMany(String query, SqlParameterSource params) {
+        return namedJdbc.query(query, params, mapper);
+    }
+
     public boolean delete(String query, long id) {
         int rowsDeleted = jdbc.update(query, id);
         return rowsDeleted > 0;
@@ -2,15 +2,29 @@ package ru.yandex.practicum.filmorate.storage.dal;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.InternalServerException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.film.Film;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.FilmRowMapper;
 
 import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Primary
 @Repository
@@ -21,9 +35,25 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
     private static final String FIND_ALL =
             "SELECT f.*, m.name AS mpa_name, m.description AS mpa_description " +
                     "FROM films f JOIN mpa m ON f.mpa_id = m.id";
+    private static final String FIND_ALL_ORDERED = FIND_ALL + " ORDER BY f.id";
+    private static final String FIND_PAGE =
+            "SELECT f.*, m.name AS mpa_name, m.description AS mpa_description " +
+                    "FROM films f JOIN mpa m ON f.mpa_id = m.id WHERE f.id > ? ORDER BY f.id LIMIT ?";
     private static final String FIND_BY_ID =
             "SELECT f.*, m.name AS mpa_name, m.description AS mpa_description " +
                     "FROM films f JOIN mpa m ON f.mpa_id = m.id WHERE f.id = ?";
+    private static final String FIND_BY_IDS =
+            "SELECT f.*, m.name AS mpa_name, m.description AS mpa_description " +
+                    "FROM films f JOIN mpa m ON f.mpa_id = m.id WHERE f.id IN (:filmIds)";
+    // mpa_id обязателен, и LEFT JOIN ничего не меняет в результате, но оставляет films ведущей таблицей:
+    // H2 читает первые строки по индексу idx_films_likes_count вместо сортировки всего каталога
+    private static final String FIND_POPULAR = """
+                SELECT f.*, m.name AS mpa_name, m.description AS mpa_description
+                FROM films f
+                LEFT JOIN mpa m ON f.mpa_id = m.id
+                ORDER BY f.likes_count DESC, f.id
+                LIMIT ?
+            """;
     private static final String UPDATE =
             "UPDATE films SET name = ?, description = ?, release_date = ?, duration = ?, mpa_id = ? WHERE id = ?";
     private static final String DELETE_ALL = "DELETE FROM films";
@@ -39,12 +69,50 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
         return findMany(FIND_ALL);
     }
 
+    @Override
+    public List<Film> getFilms(long afterId, int limit) {
+        return findMany(FIND_PAGE, afterId, limit);
+    }
+
+    // Курсор держит соединение до конца чтения, поэтому им пользуются только перестроения индексов в памяти.
+    // Выгрузка клиенту идёт страницами getFilms(afterId, limit) и от скорости клиента не зависит
+    @Override
+    public void streamFilms(int fetchSize, Consumer<Film> consumer) {
+        jdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    FIND_ALL_ORDERED, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapper.mapRow(rs, rs.getRow())));
+    }
+
     @Override
     public Film getFilm(Long filmId) {
         return findOne(FIND_BY_ID, filmId)
                 .orElseThrow(() -> new NotFoundException("Фильм с id=" + filmId + " не найден"));
     }
 
+    @Override
+    public List<Film> getFilmsByIds(List<Long> filmIds) {
+        if (filmIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int idx = 0; idx < filmIds.size(); idx++) {
+            positions.putIfAbsent(filmIds.get(idx), idx);
+        }
+
+        List<Film> films = findMany(FIND_BY_IDS, new MapSqlParameterSource("filmIds", positions.keySet()));
+        films.sort(Comparator.comparing(film -> positions.get(film.getId())));
+        return films;
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return findMany(FIND_POPULAR, Math.max(count, 0));
+    }
+
     @Override
     public void create(Film film) {
         long id = insert(
@@ -58,6 +126,43 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
         film.setId(id);
     }
 
+    @Override
+    public void createAll(List<Film> films) {
+        if (films.isEmpty()) {
+            return;
+        }
+
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbc.batchUpdate(
+                connection -> connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int idx) throws SQLException {
+                        Film film = films.get(idx);
+                        ps.setString(1, film.getName());
+                        ps.setString(2, film.getDescription());
+                        ps.setDate(3, Date.valueOf(film.getReleaseDate()));
+                        ps.setObject(4, film.getDuration());
+                        ps.setLong(5, film.getMpa().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                },
+                keyHolder
+        );
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != films.size()) {
+            throw new InternalServerException("Не удалось сохранить данные");
+        }
+        for (int idx = 0; idx < films.size(); idx++) {
+            films.get(idx).setId(((Number) keys.get(idx).get("id")).longValue());
+        }
+    }
+
     @Override
     public void update(Film film) {
         update(
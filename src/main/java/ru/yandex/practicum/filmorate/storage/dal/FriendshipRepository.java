@@ -1,14 +1,18 @@
 package ru.yandex.practicum.filmorate.storage.dal;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
-import ru.yandex.practicum.filmorate.model.user.Friends;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.user.User;
-import ru.yandex.practicum.filmorate.storage.dal.rowmapper.FriendsRowMapper;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.UserRowMapper;
 
 import java.util.List;
+import java.util.function.BiConsumer;
 
 @Repository
 @RequiredArgsConstructor
@@ -16,16 +20,29 @@ public class FriendshipRepository {
 
     private final JdbcTemplate jdbc;
 
-    private static final String ADD_FRIEND = "INSERT INTO friends(user_id, friend_id, status_id) VALUES (?, ?, ?)";
+    private static final String ADD_FRIEND = """
+                INSERT INTO friends(user_id, friend_id, status_id)
+                VALUES (?, ?, (SELECT id FROM friendship_status WHERE name = 'REQUESTED'))
+            """;
     private static final String REMOVE_FRIEND = "DELETE FROM friends WHERE user_id = ? AND friend_id = ?";
-    private static final String STATUS_ID = "SELECT id FROM friendship_status WHERE name = 'REQUESTED'";
-    private static final String FRIENDSHIP_EXISTS =
-            "SELECT EXISTS(SELECT 1 FROM friends WHERE user_id = ? AND friend_id = ?)";
-    private static final String GET_FRIENDS = """
-                SELECT f.user_id, f.friend_id, fs.name AS status_name
+    private static final String USER_EXISTS = "SELECT EXISTS(SELECT 1 FROM users WHERE id = ?)";
+    private static final String GET_FRIEND_PROFILES = """
+                SELECT u.*
                 FROM friends f
-                JOIN friendship_status fs ON f.status_id = fs.id
+                JOIN users u ON u.id = f.friend_id
                 WHERE f.user_id = ?
+                ORDER BY u.id
+            """;
+    private static final String FIND_ALL_ORDERED = "SELECT user_id, friend_id FROM friends ORDER BY user_id, friend_id";
+    private static final String SUGGESTED_FRIEND_IDS = """
+                SELECT f2.friend_id
+                FROM (SELECT user_id, friend_id FROM friends WHERE user_id = ? ORDER BY friend_id LIMIT ?) f1
+                JOIN friends f2 ON f2.user_id = f1.friend_id
+                WHERE f2.friend_id <> f1.user_id
+                  AND NOT EXISTS (SELECT 1 FROM friends d WHERE d.user_id = f1.user_id AND d.friend_id = f2.friend_id)
+                GROUP BY f2.friend_id
+                ORDER BY COUNT(*) DESC, f2.friend_id
+                LIMIT ?
             """;
     private static final String COMMON_FRIENDS = """
                 SELECT u.*
@@ -35,17 +52,31 @@ public class FriendshipRepository {
             """;
 
 
+    // Существование пользователей проверяют внешние ключи, повторный запрос — первичный ключ
     public void addFriend(Long userId, Long friendId) {
-        Short statusId = jdbc.queryForObject(STATUS_ID, Short.class);
-        jdbc.update(ADD_FRIEND, userId, friendId, statusId);
+        try {
+            jdbc.update(ADD_FRIEND, userId, friendId);
+        } catch (DuplicateKeyException e) {
+            throw new ConflictException("Запрос на дружбу уже отправлен");
+        } catch (DataIntegrityViolationException e) {
+            if (IntegrityViolations.isMissingReference(e)) {
+                if (!userExists(userId)) {
+                    throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+                }
+                if (!userExists(friendId)) {
+                    throw new NotFoundException("Пользователь с id=" + friendId + " не найден");
+                }
+            }
+            throw e;
+        }
     }
 
-    public void removeFriend(Long userId, Long friendId) {
-        jdbc.update(REMOVE_FRIEND, userId, friendId);
+    public boolean removeFriend(Long userId, Long friendId) {
+        return jdbc.update(REMOVE_FRIEND, userId, friendId) > 0;
     }
 
-    public List<Friends> getFriends(Long userId) {
-        return jdbc.query(GET_FRIENDS, new FriendsRowMapper(), userId);
+    public List<User> getFriendProfiles(Long userId) {
+        return jdbc.query(GET_FRIEND_PROFILES, new UserRowMapper(), userId);
     }
 
     public List<User> getCommonFriends(Long userId, Long otherId) {
@@ -57,10 +88,18 @@ public class FriendshipRepository {
         );
     }
 
-    public boolean friendshipExists(Long userId, Long friendId) {
-        return Boolean.TRUE.equals(
-                jdbc.queryForObject(FRIENDSHIP_EXISTS, Boolean.class, userId, friendId)
-        );
+    public void forEachFriendship(BiConsumer<Long, Long> consumer) {
+        jdbc.query(FIND_ALL_ORDERED,
+                (RowCallbackHandler) rs -> consumer.accept(rs.getLong("user_id"), rs.getLong("friend_id")));
+    }
+
+    // Первый шаг обхода ограничен maxFanOut друзьями, как и в графе в памяти
+    public List<Long> getSuggestedFriendIds(Long userId, int count, int maxFanOut) {
+        return jdbc.queryForList(SUGGESTED_FRIEND_IDS, Long.class, userId, maxFanOut, count);
+    }
+
+    private boolean userExists(Long userId) {
+        return Boolean.TRUE.equals(jdbc.queryForObject(USER_EXISTS, Boolean.class, userId));
     }
 }
 
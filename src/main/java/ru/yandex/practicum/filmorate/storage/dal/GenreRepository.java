@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.storage.dal;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
@@ -10,6 +11,7 @@ import ru.yandex.practicum.filmorate.model.film.Genre;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 @Repository
@@ -23,12 +25,16 @@ public class GenreRepository {
     private static final String FIND_GENRES_FOR_FILMS = "SELECT fg.film_id, g.* FROM film_genres fg " +
             "JOIN genres g ON fg.genre_id = g.id " +
             "WHERE fg.film_id IN (:filmIds)";
+    private static final String FIND_GENRE_IDS_BY_FILM_ID = "SELECT genre_id FROM film_genres WHERE film_id = ?";
+    private static final String FIND_GENRE_IDS_FOR_FILMS =
+            "SELECT film_id, genre_id FROM film_genres WHERE film_id IN (:filmIds)";
+    private static final String FIND_ALL_FILM_GENRES = "SELECT film_id, genre_id FROM film_genres";
     private static final String FIND_EXISTING_GENRES_IDS = "SELECT id FROM genres WHERE id IN (:ids)";
     private static final String FIND_ALL_GENRES = "SELECT * FROM genres ORDER BY id";
     private static final String FIND_BY_ID = "SELECT * FROM genres WHERE id = ?";
     private static final String EXISTS_BY_ID = "SELECT EXISTS(SELECT 1 FROM genres WHERE id = ?)";
     private static final String INSERT_GENRE = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
-    private static final String DELETE_GENRES = "DELETE FROM film_genres WHERE film_id = ?";
+    private static final String DELETE_GENRE = "DELETE FROM film_genres WHERE film_id = ? AND genre_id = ?";
 
 
     public List<Genre> getAllGenres() {
@@ -67,6 +73,33 @@ public class GenreRepository {
         });
     }
 
+    public Set<Long> findGenreIdsByFilmId(Long filmId) {
+        return new HashSet<>(jdbc.getJdbcOperations().queryForList(FIND_GENRE_IDS_BY_FILM_ID, Long.class, filmId));
+    }
+
+    public Map<Long, Set<Long>> findGenreIdsForFilms(Set<Long> filmIds) {
+        if (filmIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        SqlParameterSource params = new MapSqlParameterSource("filmIds", filmIds);
+
+        return jdbc.query(FIND_GENRE_IDS_FOR_FILMS, params, rs -> {
+            Map<Long, Set<Long>> result = new HashMap<>();
+            while (rs.next()) {
+                Long filmId = rs.getLong("film_id");
+                Long genreId = rs.getLong("genre_id");
+                result.computeIfAbsent(filmId, k -> new HashSet<>()).add(genreId);
+            }
+            return result;
+        });
+    }
+
+    public void forEachFilmGenre(BiConsumer<Long, Long> consumer) {
+        jdbc.getJdbcOperations().query(FIND_ALL_FILM_GENRES,
+                (RowCallbackHandler) rs -> consumer.accept(rs.getLong("film_id"), rs.getLong("genre_id")));
+    }
+
     public void saveGenres(Long filmId, Set<Long> genreIds) {
         List<Object[]> batchArgs = genreIds.stream()
                 .map(genreId -> new Object[]{filmId, genreId})
@@ -75,11 +108,34 @@ public class GenreRepository {
         jdbc.getJdbcOperations().batchUpdate(INSERT_GENRE, batchArgs);
     }
 
+    public void saveGenres(Map<Long, Set<Long>> genreIdsByFilm) {
+        List<Object[]> batchArgs = new ArrayList<>();
+        genreIdsByFilm.forEach((filmId, genreIds) ->
+                genreIds.forEach(genreId -> batchArgs.add(new Object[]{filmId, genreId})));
+
+        if (!batchArgs.isEmpty()) {
+            jdbc.getJdbcOperations().batchUpdate(INSERT_GENRE, batchArgs);
+        }
+    }
+
+    // Меняются только связи, которых нет в одном из наборов: удалённые и добавленные жанры
     public void updateGenres(Long filmId, Set<Long> newGenreIds) {
-        jdbc.getJdbcOperations().update(DELETE_GENRES, filmId);
+        Set<Long> target = newGenreIds == null ? Collections.emptySet() : newGenreIds;
+        Set<Long> current = findGenreIdsByFilmId(filmId);
+
+        List<Object[]> removed = current.stream()
+                .filter(genreId -> !target.contains(genreId))
+                .map(genreId -> new Object[]{filmId, genreId})
+                .collect(Collectors.toList());
+        Set<Long> added = target.stream()
+                .filter(genreId -> !current.contains(genreId))
+                .collect(Collectors.toSet());
 
-        if (newGenreIds != null && !newGenreIds.isEmpty()) {
-            saveGenres(filmId, newGenreIds);
+        if (!removed.isEmpty()) {
+            jdbc.getJdbcOperations().batchUpdate(DELETE_GENRE, removed);
+        }
+        if (!added.isEmpty()) {
+            saveGenres(filmId, added);
         }
     }
 
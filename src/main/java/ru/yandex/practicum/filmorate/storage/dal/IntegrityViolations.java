@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.storage.dal;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+// Разбор нарушений ограничений БД, когда запись идёт одним выражением без предварительных проверок
+final class IntegrityViolations {
+    // 23503 — стандартный SQLState нарушения внешнего ключа, 23506 — тот же случай в H2
+    private static final Set<String> FOREIGN_KEY_VIOLATIONS = Set.of("23503", "23506");
+
+    private IntegrityViolations() {
+    }
+
+    // Определяется по SQLState, текст сообщения зависит от драйвера и локали. Какая из ссылок
+    // не нашлась, репозиторий выясняет отдельным запросом — только на этом редком пути ошибки
+    static boolean isMissingReference(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                return FOREIGN_KEY_VIOLATIONS.contains(sqlException.getSQLState());
+            }
+        }
+        return false;
+    }
+}
@@ -1,35 +1,168 @@
 package ru.yandex.practicum.filmorate.storage.dal;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.film.Like;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 @Repository
 @RequiredArgsConstructor
 public class LikeRepository {
     private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
 
-    private static final String INSERT_LIKE = "INSERT INTO film_likes (film_id, user_id) VALUES (?, ?)";
+    private static final String INSERT_LIKE =
+            "INSERT INTO film_likes (film_id, user_id, created_at) VALUES (?, ?, ?)";
+    private static final String INSERT_LIKE_IF_ABSENT = """
+                INSERT INTO film_likes (film_id, user_id, created_at)
+                SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM film_likes WHERE film_id = ? AND user_id = ?)
+            """;
     private static final String DELETE_LIKE = "DELETE FROM film_likes WHERE film_id = ? AND user_id = ?";
-    private static final String FIND_LIKES_BY_FILM = "SELECT user_id FROM film_likes WHERE film_id = ?";
+    private static final String FIND_LIKE_TIME_FOR_UPDATE =
+            "SELECT created_at FROM film_likes WHERE film_id = ? AND user_id = ? FOR UPDATE";
+    private static final String FIND_LIKE_TIMES =
+            "SELECT film_id, user_id, created_at FROM film_likes WHERE (film_id, user_id) IN (:likes)";
+    private static final String DELETE_LIKES_BY_USER = "DELETE FROM film_likes WHERE user_id = ?";
+    private static final String ADJUST_LIKES_COUNT = "UPDATE films SET likes_count = likes_count + ? WHERE id = ?";
+    private static final String DECREMENT_LIKES_COUNT_BY_USER = """
+                UPDATE films SET likes_count = likes_count - 1
+                WHERE id IN (SELECT film_id FROM film_likes WHERE user_id = ?)
+            """;
+    private static final String FIND_DRIFTED_LIKES_COUNTS = """
+                SELECT f.id
+                FROM films f
+                LEFT JOIN (
+                    SELECT film_id, COUNT(*) AS likes_count
+                    FROM film_likes
+                    GROUP BY film_id
+                ) fl ON f.id = fl.film_id
+                WHERE f.likes_count <> COALESCE(fl.likes_count, 0)
+            """;
+    private static final String RECONCILE_LIKES_COUNTS = """
+                UPDATE films f
+                SET likes_count = (SELECT COUNT(*) FROM film_likes fl WHERE fl.film_id = f.id)
+                WHERE f.id IN (:filmIds)
+            """;
     private static final String FIND_LIKES_FOR_FILMS =
             "SELECT film_id, user_id FROM film_likes WHERE film_id IN (:filmIds)";
+    private static final String FIND_FILMS_LIKED_BY_USER = "SELECT film_id, created_at FROM film_likes WHERE user_id = ?";
+    private static final String FIND_ALL_LIKES = "SELECT film_id, user_id FROM film_likes";
+    private static final String FIND_LIKES_SINCE = "SELECT film_id, created_at FROM film_likes WHERE created_at >= ?";
+    private static final String FILM_EXISTS = "SELECT EXISTS(SELECT 1 FROM films WHERE id = ?)";
+    private static final String USER_EXISTS = "SELECT EXISTS(SELECT 1 FROM users WHERE id = ?)";
+    private static final String COUNT_LIKES_BY_FILM = "SELECT id AS film_id, likes_count FROM films";
 
 
-    public void addLike(Long filmId, Long userId) {
-        jdbc.getJdbcOperations().update(INSERT_LIKE, filmId, userId);
+    // Существование фильма и пользователя проверяют внешние ключи, повторный лайк — первичный ключ.
+    // Счётчик лайков фильма меняется в той же транзакции, что и film_likes. Возвращает время лайка
+    public Instant addLike(Long filmId, Long userId) {
+        // Точность TIMESTAMP в H2 — микросекунды: возвращается то же время, что будет прочитано из БД
+        Instant likedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbc.getJdbcOperations().update(INSERT_LIKE, filmId, userId, Timestamp.from(likedAt));
+                jdbc.getJdbcOperations().update(ADJUST_LIKES_COUNT, 1, filmId);
+            });
+            return likedAt;
+        } catch (DuplicateKeyException e) {
+            throw new ConflictException("Пользователь " + userId + " уже поставил лайк фильму " + filmId);
+        } catch (DataIntegrityViolationException e) {
+            if (IntegrityViolations.isMissingReference(e)) {
+                if (!exists(FILM_EXISTS, filmId)) {
+                    throw new NotFoundException("Фильм с id=" + filmId + " не найден");
+                }
+                if (!exists(USER_EXISTS, userId)) {
+                    throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+                }
+            }
+            throw e;
+        }
+    }
+
+    // Время лайка читается под блокировкой строки в той же транзакции, что и DELETE; пусто, если лайка не было
+    public Optional<Instant> removeLike(Long filmId, Long userId) {
+        return transactionTemplate.execute(status -> {
+            List<Instant> likedAt = jdbc.getJdbcOperations().query(FIND_LIKE_TIME_FOR_UPDATE,
+                    (rs, rowNum) -> likedAt(rs.getTimestamp("created_at")), filmId, userId);
+            if (likedAt.isEmpty() || jdbc.getJdbcOperations().update(DELETE_LIKE, filmId, userId) == 0) {
+                return Optional.empty();
+            }
+            jdbc.getJdbcOperations().update(ADJUST_LIKES_COUNT, -1, filmId);
+            return Optional.of(likedAt.getFirst());
+        });
+    }
+
+    public int[] addLikes(List<Like> likes, Instant likedAt) {
+        Timestamp createdAt = Timestamp.from(likedAt);
+        List<Object[]> batchArgs = likes.stream()
+                .map(like -> new Object[]{like.filmId(), like.userId(), createdAt, like.filmId(), like.userId()})
+                .toList();
+        return transactionTemplate.execute(status -> {
+            int[] rows = jdbc.getJdbcOperations().batchUpdate(INSERT_LIKE_IF_ABSENT, batchArgs);
+            adjustLikesCounts(likes, rows, 1);
+            return rows;
+        });
+    }
+
+    public int[] removeLikes(List<Like> likes) {
+        List<Object[]> batchArgs = likes.stream()
+                .map(like -> new Object[]{like.filmId(), like.userId()})
+                .toList();
+        return transactionTemplate.execute(status -> {
+            int[] rows = jdbc.getJdbcOperations().batchUpdate(DELETE_LIKE, batchArgs);
+            adjustLikesCounts(likes, rows, -1);
+            return rows;
+        });
+    }
+
+    // Перед удалением пользователя: каскадное удаление его лайков счётчики фильмов не поправит
+    public void removeLikesBy(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbc.getJdbcOperations().update(DECREMENT_LIKES_COUNT_BY_USER, userId);
+            jdbc.getJdbcOperations().update(DELETE_LIKES_BY_USER, userId);
+        });
     }
 
-    public void removeLike(Long filmId, Long userId) {
-        jdbc.getJdbcOperations().update(DELETE_LIKE, filmId, userId);
+    // Приводит счётчики к фактическому числу лайков и возвращает id исправленных фильмов
+    public Set<Long> reconcileLikesCounts() {
+        return transactionTemplate.execute(status -> {
+            Set<Long> filmIds = new HashSet<>(
+                    jdbc.getJdbcOperations().queryForList(FIND_DRIFTED_LIKES_COUNTS, Long.class));
+            if (!filmIds.isEmpty()) {
+                jdbc.update(RECONCILE_LIKES_COUNTS, new MapSqlParameterSource("filmIds", filmIds));
+            }
+            return filmIds;
+        });
     }
 
-    public Set<Long> getLikes(Long filmId) {
-        return new HashSet<>(jdbc.getJdbcOperations().queryForList(FIND_LIKES_BY_FILM, Long.class, filmId));
+    // Изменения счётчиков суммируются по фильму: одна строка UPDATE на фильм, а не на лайк
+    private void adjustLikesCounts(List<Like> likes, int[] rows, int sign) {
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] > 0) {
+                deltas.merge(likes.get(i).filmId(), sign, Integer::sum);
+            }
+        }
+        List<Object[]> batchArgs = deltas.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList();
+        if (!batchArgs.isEmpty()) {
+            jdbc.getJdbcOperations().batchUpdate(ADJUST_LIKES_COUNT, batchArgs);
+        }
     }
 
     public Map<Long, Set<Long>> findLikesForFilms(Set<Long> filmIds) {
@@ -50,5 +183,56 @@ public class LikeRepository {
         });
     }
 
-}
+    // Фильмы, которые лайкнул пользователь, со временем лайка
+    public Map<Long, Instant> findLikesBy(Long userId) {
+        Map<Long, Instant> result = new HashMap<>();
+        jdbc.getJdbcOperations().query(FIND_FILMS_LIKED_BY_USER, (RowCallbackHandler) rs ->
+                result.put(rs.getLong("film_id"), likedAt(rs.getTimestamp("created_at"))), userId);
+        return result;
+    }
+
+    public Map<Like, Instant> findLikeTimes(List<Like> likes) {
+        if (likes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Object[]> pairs = likes.stream()
+                .map(like -> new Object[]{like.filmId(), like.userId()})
+                .toList();
+        Map<Like, Instant> result = new HashMap<>();
+        jdbc.query(FIND_LIKE_TIMES, new MapSqlParameterSource("likes", pairs), (RowCallbackHandler) rs ->
+                result.put(new Like(rs.getLong("film_id"), rs.getLong("user_id")),
+                        likedAt(rs.getTimestamp("created_at"))));
+        return result;
+    }
+
+    public Map<Long, Integer> countLikesByFilm() {
+        return jdbc.getJdbcOperations().query(COUNT_LIKES_BY_FILM, rs -> {
+            Map<Long, Integer> result = new HashMap<>();
+            while (rs.next()) {
+                result.put(rs.getLong("film_id"), rs.getInt("likes_count"));
+            }
+            return result;
+        });
+    }
+
+    // Построчный обход всех лайков без сборки промежуточной коллекции
+    public void forEachLike(BiConsumer<Long, Long> consumer) {
+        jdbc.getJdbcOperations().query(FIND_ALL_LIKES, (RowCallbackHandler) rs ->
+                consumer.accept(rs.getLong("film_id"), rs.getLong("user_id")));
+    }
+
+    public void forEachLikeSince(Instant since, BiConsumer<Long, Instant> consumer) {
+        RowCallbackHandler handler = rs ->
+                consumer.accept(rs.getLong("film_id"), rs.getTimestamp("created_at").toInstant());
+        jdbc.getJdbcOperations().query(FIND_LIKES_SINCE, handler, Timestamp.from(since));
+    }
+
+    private boolean exists(String sql, Long id) {
+        return Boolean.TRUE.equals(jdbc.getJdbcOperations().queryForObject(sql, Boolean.class, id));
+    }
 
+    // У лайков, поставленных до появления created_at, время неизвестно: они считаются старше любого окна
+    private static Instant likedAt(Timestamp createdAt) {
+        return createdAt == null ? Instant.EPOCH : createdAt.toInstant();
+    }
+}
@@ -0,0 +1,220 @@
+package ru.yandex.practicum.filmorate.storage.dal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.event.LikeRemovedEvent;
+import ru.yandex.practicum.filmorate.model.film.Like;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Отложенная запись лайков: операции копятся в памяти и пишутся в БД пачками по размеру или по таймеру
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeWriteBuffer {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final int SHUTDOWN_FLUSH_ATTEMPTS = 3;
+
+    private final LikeRepository likeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Для пары фильм-пользователь хранится только последняя операция: true — лайк, false — удаление лайка
+    private final ConcurrentMap<Like, Boolean> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    @Value("${filmorate.likes.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${filmorate.likes.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${filmorate.likes.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Отложенная запись лайков включена: пачка {}, интервал {} мс", batchSize, flushIntervalMs);
+    }
+
+    // Последние проходы при остановке ограничены по числу и по времени: недоступная БД не должна её блокировать
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+        for (int attempt = 1; !pending.isEmpty() && attempt <= SHUTDOWN_FLUSH_ATTEMPTS; attempt++) {
+            if (!flushPass() && attempt < SHUTDOWN_FLUSH_ATTEMPTS) {
+                long pauseMs = Math.min(flushIntervalMs * attempt,
+                        TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                if (pauseMs <= 0) {
+                    break;
+                }
+                Thread.sleep(pauseMs);
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.error("При остановке не записано {} операций с лайками: {}", pending.size(), pending);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void addLike(Long filmId, Long userId) {
+        enqueue(new Like(filmId, userId), true);
+    }
+
+    public void removeLike(Long filmId, Long userId) {
+        enqueue(new Like(filmId, userId), false);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public void flush() {
+        flushPass();
+    }
+
+    // Проход пишет только операции, накопленные к его началу. Пачка, не записанная из-за ошибки БД,
+    // возвращается в буфер и ждёт следующего тика; оставшиеся пачки прохода тоже откладываются.
+    // Возвращает false, если проход прерван ошибкой
+    private boolean flushPass() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            List<Like> snapshot = new ArrayList<>(pending.keySet());
+            for (int from = 0; from < snapshot.size(); from += batchSize) {
+                List<Like> added = new ArrayList<>();
+                List<Like> removed = new ArrayList<>();
+                for (Like like : snapshot.subList(from, Math.min(from + batchSize, snapshot.size()))) {
+                    Boolean liked = pending.remove(like);
+                    if (Boolean.TRUE.equals(liked)) {
+                        added.add(like);
+                    } else if (Boolean.FALSE.equals(liked)) {
+                        removed.add(like);
+                    }
+                }
+                if (!write(added, true)) {
+                    requeue(removed, false);
+                    return false;
+                }
+                if (!write(removed, false)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void enqueue(Like like, boolean liked) {
+        pending.put(like, liked);
+        if (pending.size() >= batchSize && scheduler != null && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushSafely);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ошибка при записи пачки лайков", e);
+        }
+    }
+
+    // Более новая операция с той же парой, пришедшая во время записи, не перезаписывается
+    private void requeue(List<Like> likes, boolean liked) {
+        likes.forEach(like -> pending.putIfAbsent(like, liked));
+    }
+
+    private boolean write(List<Like> likes, boolean liked) {
+        if (likes.isEmpty()) {
+            return true;
+        }
+
+        // Время новых лайков — момент записи пачки, время удаляемых читается из БД до удаления
+        Instant now = Instant.now();
+        Map<Like, Instant> likedAt = new HashMap<>();
+        int[] rows;
+        try {
+            rows = transactionTemplate.execute(status -> writeBatch(likes, liked, now, likedAt));
+        } catch (DataIntegrityViolationException e) {
+            // Фильм или пользователь удалены до записи пачки — применяем операции по одной
+            rows = writeOneByOne(likes, liked, now, likedAt);
+        } catch (DataAccessException e) {
+            log.error("Не удалось записать пачку лайков, операции будут повторены на следующем тике", e);
+            requeue(likes, liked);
+            return false;
+        }
+
+        for (int idx = 0; idx < likes.size(); idx++) {
+            if (rows == null || rows[idx] <= 0) {
+                continue;
+            }
+            Like like = likes.get(idx);
+            eventPublisher.publishEvent(liked
+                    ? new LikeAddedEvent(like.filmId(), like.userId(), now)
+                    : new LikeRemovedEvent(like.filmId(), like.userId(),
+                            likedAt.getOrDefault(like, Instant.EPOCH)));
+        }
+        return true;
+    }
+
+    private int[] writeBatch(List<Like> likes, boolean liked, Instant now, Map<Like, Instant> likedAt) {
+        if (liked) {
+            return likeRepository.addLikes(likes, now);
+        }
+        likedAt.putAll(likeRepository.findLikeTimes(likes));
+        return likeRepository.removeLikes(likes);
+    }
+
+    private int[] writeOneByOne(List<Like> likes, boolean liked, Instant now, Map<Like, Instant> likedAt) {
+        int[] rows = new int[likes.size()];
+        for (int idx = 0; idx < likes.size(); idx++) {
+            try {
+                rows[idx] = writeBatch(List.of(likes.get(idx)), liked, now, likedAt)[0];
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Лайк {} не записан: {}", likes.get(idx), e.getMostSpecificCause().getMessage());
+            }
+        }
+        return rows;
+    }
+}
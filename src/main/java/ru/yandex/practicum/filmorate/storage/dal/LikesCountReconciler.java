@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.storage.dal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.LikesCountsReconciledEvent;
+
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Периодическая сверка films.likes_count с film_likes: исправляет расхождения после прямых правок
+// в БД, каскадных удалений и сбоев между записью лайка и счётчика
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikesCountReconciler {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final LikeRepository likeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${filmorate.films.likes-count.reconcile-interval-ms:3600000}")
+    private long intervalMs;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        if (intervalMs <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "likes-count-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Первая сверка сразу после запуска заполняет счётчики в базе, созданной до появления колонки
+        scheduler.scheduleWithFixedDelay(this::reconcileSafely, 0, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Сверка счётчиков лайков включена, интервал {} мс", intervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    public Set<Long> reconcile() {
+        Set<Long> filmIds = likeRepository.reconcileLikesCounts();
+        if (!filmIds.isEmpty()) {
+            log.warn("Исправлены счётчики лайков фильмов: {}", filmIds.size());
+            eventPublisher.publishEvent(new LikesCountsReconciledEvent(filmIds));
+        }
+        return filmIds;
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Ошибка сверки счётчиков лайков", e);
+        }
+    }
+}
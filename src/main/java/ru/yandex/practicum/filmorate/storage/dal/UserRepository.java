@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.storage.dal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.user.User;
@@ -10,7 +11,12 @@ import ru.yandex.practicum.filmorate.storage.UserStorage;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.UserRowMapper;
 
 import java.sql.Date;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Primary
 @Repository
@@ -18,7 +24,9 @@ public class UserRepository extends BaseRepository<User> implements UserStorage
 
     private static final String INSERT = "INSERT INTO users(email, login, name, birthday) VALUES (?, ?, ?, ?)";
     private static final String FIND_ALL = "SELECT * FROM users";
+    private static final String FIND_PAGE = "SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ?";
     private static final String FIND_BY_ID = "SELECT * FROM users WHERE id = ?";
+    private static final String FIND_BY_IDS = "SELECT * FROM users WHERE id IN (:userIds)";
     private static final String UPDATE = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE id = ?";
     private static final String DELETE = "DELETE FROM users WHERE id = ?";
     private static final String DELETE_ALL = "DELETE FROM users";
@@ -33,12 +41,33 @@ public class UserRepository extends BaseRepository<User> implements UserStorage
         return findMany(FIND_ALL);
     }
 
+    @Override
+    public List<User> getUsers(long afterId, int limit) {
+        return findMany(FIND_PAGE, afterId, limit);
+    }
+
     @Override
     public User getUser(Long userId) {
         return findOne(FIND_BY_ID, userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
     }
 
+    @Override
+    public List<User> getUsersByIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Integer> positions = new HashMap<>();
+        for (Long userId : userIds) {
+            positions.putIfAbsent(userId, positions.size());
+        }
+
+        List<User> users = findMany(FIND_BY_IDS, new MapSqlParameterSource("userIds", positions.keySet()));
+        users.sort(Comparator.comparing(user -> positions.get(user.getId())));
+        return users;
+    }
+
     @Override
     public void create(User user) {
         long id = insert(
@@ -5,14 +5,16 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.film.Film;
 import ru.yandex.practicum.filmorate.model.film.MPA;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class FilmRowMapper implements RowMapper<Film> {
-    private final MpaRowMapper mpaRowMapper;
+    private final ReferenceDataCache referenceDataCache;
 
     @Override
     public Film mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -22,12 +24,21 @@ public class FilmRowMapper implements RowMapper<Film> {
                 .description(rs.getString("description"))
                 .releaseDate(rs.getDate("release_date").toLocalDate())
                 .duration(rs.getInt("duration"))
-                .mpa(new MPA(
-                        rs.getLong("mpa_id"),
-                        rs.getString("mpa_name"),
-                        rs.getString("mpa_description")
-                ))
+                .mpa(mapMpa(rs))
+                .likesCount(rs.getInt("likes_count"))
                 .build();
     }
-}
 
+    private MPA mapMpa(ResultSet rs) throws SQLException {
+        long mpaId = rs.getLong("mpa_id");
+        Optional<MPA> cached = referenceDataCache.findMpa(mpaId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return new MPA(
+                mpaId,
+                rs.getString("mpa_name"),
+                rs.getString("mpa_description")
+        );
+    }
+}
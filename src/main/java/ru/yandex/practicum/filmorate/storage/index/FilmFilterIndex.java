@@ -0,0 +1,140 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmCreatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmUpdatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Множества id фильмов по жанру, рейтингу MPA и году выпуска для фильтрации без обращения к БД
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmFilterIndex {
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final FilmStorage filmStorage;
+    private final GenreRepository genreRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, RoaringBitmap> byGenre = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byMpa = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> byYear = new HashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            filmStorage.streamFilms(STREAM_FETCH_SIZE, this::addAttributes);
+            genreRepository.forEachFilmGenre((filmId, genreId) -> add(byGenre, genreId, filmId));
+            log.info("Индекс фильтров построен: жанров — {}, MPA — {}, годов — {}",
+                    byGenre.size(), byMpa.size(), byYear.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Пересечение фильмов, подходящих под все заданные условия; пусто, если условий нет
+    public Optional<RoaringBitmap> match(Long genreId, Long mpaId, Integer year) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> conditions = new ArrayList<>(3);
+            if (genreId != null) {
+                conditions.add(byGenre.getOrDefault(genreId, new RoaringBitmap()));
+            }
+            if (mpaId != null) {
+                conditions.add(byMpa.getOrDefault(mpaId, new RoaringBitmap()));
+            }
+            if (year != null) {
+                conditions.add(byYear.getOrDefault(year, new RoaringBitmap()));
+            }
+            if (conditions.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(conditions.size() == 1
+                    ? conditions.getFirst().clone()
+                    : FastAggregation.and(conditions.iterator()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onFilmCreated(FilmCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            add(event.film());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onFilmUpdated(FilmUpdatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            // Прежние значения не хранятся: справочников немного, фильм просто убирается из всех множеств
+            int filmId = Math.toIntExact(event.film().getId());
+            byGenre.values().forEach(films -> films.remove(filmId));
+            byMpa.values().forEach(films -> films.remove(filmId));
+            byYear.values().forEach(films -> films.remove(filmId));
+            add(event.film());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onFilmsDeleted(FilmsDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Film film) {
+        addAttributes(film);
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                add(byGenre, genre.getId(), film.getId());
+            }
+        }
+    }
+
+    private void addAttributes(Film film) {
+        if (film.getMpa() != null) {
+            add(byMpa, film.getMpa().getId(), film.getId());
+        }
+        add(byYear, film.getReleaseDate().getYear(), film.getId());
+    }
+
+    private static <K> void add(Map<K, RoaringBitmap> bitmaps, K key, Long filmId) {
+        bitmaps.computeIfAbsent(key, k -> new RoaringBitmap()).add(Math.toIntExact(filmId));
+    }
+
+    private void clear() {
+        byGenre.clear();
+        byMpa.clear();
+        byYear.clear();
+    }
+}
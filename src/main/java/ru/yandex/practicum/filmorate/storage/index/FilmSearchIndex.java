@@ -0,0 +1,229 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmCreatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmUpdatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Обратный индекс по названию и описанию фильмов с ранжированием BM25.
+// Текст не хранится: для фильма остаются только длина и номера его слов, нужные для обновления
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final Locale RUSSIAN = Locale.forLanguageTag("ru");
+
+    private final FilmStorage filmStorage;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            filmStorage.streamFilms(STREAM_FETCH_SIZE, this::index);
+            log.info("Поисковый индекс построен, фильмов: {}, слов: {}", documents.size(), termIds.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty() || terms.isEmpty() || limit <= 0) {
+                return List.of();
+            }
+
+            double averageLength = (double) totalLength / documents.size();
+            Map<Integer, double[]> scores = new HashMap<>();
+            for (String term : terms) {
+                Integer termId = termIds.get(term);
+                if (termId == null) {
+                    continue;
+                }
+                Postings list = postings.get(termId);
+                double idf = Math.log(1 + (documents.size() - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int frequency = list.frequencies[i];
+                    double norm = K1 * (1 - B + B * documents.get(list.filmIds[i]).length() / averageLength);
+                    double score = idf * frequency * (K1 + 1) / (frequency + norm);
+                    scores.computeIfAbsent(list.filmIds[i], id -> new double[1])[0] += score;
+                }
+            }
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onFilmCreated(FilmCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            index(event.film());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onFilmUpdated(FilmUpdatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(Math.toIntExact(event.film().getId()));
+            index(event.film());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onFilmsDeleted(FilmsDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Слова — непрерывные последовательности букв и цифр в нижнем регистре, «ё» приравнивается к «е»
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char ch = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(ch)) {
+                token.append(ch == 'ё' || ch == 'Ё' ? 'е' : ch);
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString().toLowerCase(RUSSIAN));
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    // Id фильмов ограничены схемой диапазоном int, преобразование не падает в обработчике события
+    private void index(Film film) {
+        int filmId = Math.toIntExact(film.getId());
+        List<String> tokens = tokenize(film.getName());
+        tokens.addAll(tokenize(film.getDescription()));
+
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+
+        int[] filmTermIds = new int[frequencies.size()];
+        int idx = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            int termId = termIds.computeIfAbsent(entry.getKey(), term -> {
+                postings.add(new Postings());
+                return postings.size() - 1;
+            });
+            postings.get(termId).add(filmId, entry.getValue());
+            filmTermIds[idx++] = termId;
+        }
+        documents.put(filmId, new Document(tokens.size(), filmTermIds));
+        totalLength += tokens.size();
+    }
+
+    private void remove(int filmId) {
+        Document document = documents.remove(filmId);
+        if (document == null) {
+            return;
+        }
+        for (int termId : document.termIds()) {
+            postings.get(termId).remove(filmId);
+        }
+        totalLength -= document.length();
+    }
+
+    private void clear() {
+        termIds.clear();
+        postings.clear();
+        documents.clear();
+        totalLength = 0;
+    }
+
+    private static List<Long> top(Map<Integer, double[]> scores, int limit) {
+        // Минимальная куча: в корне — худший из отобранных, при равном счёте хуже больший id
+        PriorityQueue<Map.Entry<Integer, double[]>> heap = new PriorityQueue<>((a, b) -> {
+            int byScore = Double.compare(a.getValue()[0], b.getValue()[0]);
+            return byScore != 0 ? byScore : Integer.compare(b.getKey(), a.getKey());
+        });
+        for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+            heap.add(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        Long[] result = new Long[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = (long) heap.poll().getKey();
+        }
+        return Arrays.asList(result);
+    }
+
+    private record Document(int length, int[] termIds) {
+    }
+
+    // Список фильмов со словом и частотой слова в каждом; порядок не важен, удаление — перестановкой последнего
+    private static final class Postings {
+        private int[] filmIds = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+
+        void add(int filmId, int frequency) {
+            if (size == filmIds.length) {
+                filmIds = Arrays.copyOf(filmIds, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            filmIds[size] = filmId;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        void remove(int filmId) {
+            for (int i = 0; i < size; i++) {
+                if (filmIds[i] == filmId) {
+                    size--;
+                    filmIds[i] = filmIds[size];
+                    frequencies[i] = frequencies[size];
+                    return;
+                }
+            }
+        }
+    }
+}
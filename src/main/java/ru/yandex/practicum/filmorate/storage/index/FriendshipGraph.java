@@ -0,0 +1,210 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FriendAddedEvent;
+import ru.yandex.practicum.filmorate.event.FriendRemovedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.storage.dal.FriendshipRepository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+// Граф дружбы в памяти: для каждого пользователя — отсортированный массив id друзей.
+// Массивы не изменяются на месте: при добавлении или удалении друга пользователь получает новый массив.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FriendshipGraph {
+    private static final long[] EMPTY = new long[0];
+
+    private final FriendshipRepository friendshipRepository;
+
+    private final ConcurrentMap<Long, long[]> friends = new ConcurrentHashMap<>();
+
+    @Value("${filmorate.users.friendship-graph.enabled:false}")
+    private boolean enabled;
+
+    // Сколько соседей просматривается у одного пользователя на каждом шаге обхода
+    @Value("${filmorate.users.suggestions.max-fan-out:1000}")
+    private int maxFanOut;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxFanOut() {
+        return maxFanOut;
+    }
+
+    public void rebuild() {
+        AdjacencyLoader loader = new AdjacencyLoader();
+        friendshipRepository.forEachFriendship(loader);
+        Map<Long, long[]> loaded = loader.finish();
+
+        friends.clear();
+        friends.putAll(loaded);
+        log.info("Граф дружбы построен, пользователей с друзьями: {}", loaded.size());
+    }
+
+    public long[] getFriendIds(Long userId) {
+        return friends.getOrDefault(userId, EMPTY);
+    }
+
+    public long[] getCommonFriendIds(Long userId, Long otherId) {
+        long[] first = getFriendIds(userId);
+        long[] second = getFriendIds(otherId);
+        long[] result = new long[Math.min(first.length, second.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    // Друзья друзей, ещё не ставшие друзьями, по убыванию числа общих друзей, при равенстве — меньший id.
+    // Обход ограничен двумя шагами и maxFanOut соседями на пользователя, поэтому не зависит от размера графа
+    public long[] suggestFriendIds(Long userId, int count) {
+        long[] direct = getFriendIds(userId);
+        LongIntHashMap mutualCounts = new LongIntHashMap(Math.min(direct.length, maxFanOut) * 16);
+        long[] step = sample(direct);
+        for (long friendId : step) {
+            for (long candidateId : sample(getFriendIds(friendId))) {
+                if (candidateId != userId && Arrays.binarySearch(direct, candidateId) < 0) {
+                    mutualCounts.addTo(candidateId, 1);
+                }
+            }
+        }
+        return mutualCounts.topKeys(count);
+    }
+
+    // Выключенный граф не строится, поэтому и события не копит: иначе в нём остались бы только новые дружбы
+    @EventListener
+    public void onFriendAdded(FriendAddedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        friends.compute(event.userId(), (userId, current) -> insert(current, event.friendId()));
+    }
+
+    @EventListener
+    public void onFriendRemoved(FriendRemovedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        friends.computeIfPresent(event.userId(), (userId, current) -> remove(current, event.friendId()));
+    }
+
+    // Дружба удаляется каскадно вместе с пользователем, обратных ссылок в графе нет — просматриваем всех
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        friends.remove(event.userId());
+        for (Long userId : friends.keySet()) {
+            friends.computeIfPresent(userId, (id, current) -> remove(current, event.userId()));
+        }
+    }
+
+    // Не больше maxFanOut соседей, взятых равномерно по всему списку
+    private long[] sample(long[] neighbours) {
+        if (neighbours.length <= maxFanOut) {
+            return neighbours;
+        }
+        long[] sampled = new long[maxFanOut];
+        double stride = (double) neighbours.length / maxFanOut;
+        for (int i = 0; i < maxFanOut; i++) {
+            sampled[i] = neighbours[(int) (i * stride)];
+        }
+        return sampled;
+    }
+
+    private static long[] insert(long[] current, long friendId) {
+        if (current == null) {
+            return new long[]{friendId};
+        }
+        int position = Arrays.binarySearch(current, friendId);
+        if (position >= 0) {
+            return current;
+        }
+        int insertAt = -position - 1;
+        long[] updated = new long[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, insertAt);
+        updated[insertAt] = friendId;
+        System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+        return updated;
+    }
+
+    // null удаляет пользователя из графа, когда у него не осталось друзей
+    private static long[] remove(long[] current, long friendId) {
+        int position = Arrays.binarySearch(current, friendId);
+        if (position < 0) {
+            return current;
+        }
+        if (current.length == 1) {
+            return null;
+        }
+        long[] updated = new long[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, position);
+        System.arraycopy(current, position + 1, updated, position, current.length - position - 1);
+        return updated;
+    }
+
+    // Строки приходят отсортированными по user_id и friend_id, поэтому массивы собираются уже упорядоченными
+    private static class AdjacencyLoader implements BiConsumer<Long, Long> {
+        private final Map<Long, long[]> result = new HashMap<>();
+        private long[] buffer = new long[16];
+        private int size;
+        private long currentUserId = -1;
+
+        @Override
+        public void accept(Long userId, Long friendId) {
+            if (userId != currentUserId) {
+                flushCurrent();
+                currentUserId = userId;
+            }
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = friendId;
+        }
+
+        Map<Long, long[]> finish() {
+            flushCurrent();
+            return result;
+        }
+
+        private void flushCurrent() {
+            if (size > 0) {
+                result.put(currentUserId, Arrays.copyOf(buffer, size));
+                size = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.event.LikeRemovedEvent;
+import ru.yandex.practicum.filmorate.storage.dal.LikeRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Лайки в виде сжатых битовых множеств: фильмы каждого пользователя и аудитория каждого фильма.
+// Рекомендации строятся по пользователям с наибольшим пересечением лайков
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeBitmapIndex {
+    private final LikeRepository likeRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, RoaringBitmap> filmsByUser = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> usersByFilm = new HashMap<>();
+
+    @Value("${filmorate.recommendations.neighbours:50}")
+    private int neighbours;
+
+    // Фильмы, которые лайкнули почти все, ничего не говорят о схожести вкусов и только тормозят подсчёт
+    @Value("${filmorate.recommendations.max-film-audience:100000}")
+    private int maxFilmAudience;
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            filmsByUser.clear();
+            usersByFilm.clear();
+            likeRepository.forEachLike(this::add);
+            filmsByUser.values().forEach(RoaringBitmap::runOptimize);
+            usersByFilm.values().forEach(RoaringBitmap::runOptimize);
+            log.info("Индекс лайков построен, пользователей: {}, фильмов: {}",
+                    filmsByUser.size(), usersByFilm.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> recommend(Long userId, int count) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap liked = filmsByUser.get(Math.toIntExact(userId));
+            if (liked == null || liked.isEmpty() || count <= 0) {
+                return List.of();
+            }
+
+            // Сколько общих лайков у каждого другого пользователя
+            LongIntHashMap overlap = new LongIntHashMap(1024);
+            int self = Math.toIntExact(userId);
+            liked.forEach((int filmId) -> {
+                RoaringBitmap audience = usersByFilm.get(filmId);
+                if (audience != null && audience.getCardinality() <= maxFilmAudience) {
+                    audience.forEach((int otherId) -> {
+                        if (otherId != self) {
+                            overlap.addTo(otherId, 1);
+                        }
+                    });
+                }
+            });
+
+            // Непросмотренные фильмы ближайших соседей, взвешенные числом общих лайков
+            LongIntHashMap scores = new LongIntHashMap(count * 4);
+            for (long neighbourId : overlap.topKeys(neighbours)) {
+                int weight = overlap.get(neighbourId);
+                RoaringBitmap.andNot(filmsByUser.get((int) neighbourId), liked)
+                        .forEach((int filmId) -> scores.addTo(filmId, weight));
+            }
+
+            long[] filmIds = scores.topKeys(count);
+            List<Long> result = new ArrayList<>(filmIds.length);
+            for (long filmId : filmIds) {
+                result.add(filmId);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onLikeAdded(LikeAddedEvent event) {
+        lock.writeLock().lock();
+        try {
+            add(event.filmId(), event.userId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onLikeRemoved(LikeRemovedEvent event) {
+        lock.writeLock().lock();
+        try {
+            int filmId = Math.toIntExact(event.filmId());
+            int userId = Math.toIntExact(event.userId());
+            remove(filmsByUser, userId, filmId);
+            remove(usersByFilm, filmId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onFilmsDeleted(FilmsDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            filmsByUser.clear();
+            usersByFilm.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Схема не пропускает id больше Integer.MAX_VALUE, поэтому преобразование не падает в обработчике события
+    private void add(Long filmId, Long userId) {
+        int film = Math.toIntExact(filmId);
+        int user = Math.toIntExact(userId);
+        filmsByUser.computeIfAbsent(user, id -> new RoaringBitmap()).add(film);
+        usersByFilm.computeIfAbsent(film, id -> new RoaringBitmap()).add(user);
+    }
+
+    private static void remove(Map<Integer, RoaringBitmap> bitmaps, int key, int value) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(value);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmCreatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.event.LikeRemovedEvent;
+import ru.yandex.practicum.filmorate.event.LikesCountsReconciledEvent;
+import ru.yandex.practicum.filmorate.storage.dal.LikeRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+// Рейтинг фильмов по количеству лайков: больше лайков — выше, при равенстве — меньший id
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PopularityIndex {
+    private static final Comparator<Entry> BY_POPULARITY = Comparator
+            .comparingInt(Entry::likes).reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final LikeRepository likeRepository;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableSet<Entry> ranking = new TreeSet<>(BY_POPULARITY);
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        entries.clear();
+        ranking.clear();
+        likeRepository.countLikesByFilm().forEach(this::put);
+        log.info("Индекс популярности построен, фильмов: {}", entries.size());
+    }
+
+    public synchronized List<Long> getTopFilmIds(int count) {
+        List<Long> result = new ArrayList<>(Math.min(Math.max(count, 0), entries.size()));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (result.size() < count && iterator.hasNext()) {
+            result.add(iterator.next().filmId());
+        }
+        return result;
+    }
+
+    // Топ среди отобранных фильмов. Для широкого фильтра выгоднее идти по рейтингу, пока не наберётся count
+    // подходящих (в среднем count * N / |filter| шагов), для узкого — выбрать лучшие из самого фильтра
+    public synchronized List<Long> getTopFilmIds(int count, RoaringBitmap filter) {
+        long matched = filter.getLongCardinality();
+        if (count <= 0 || matched == 0) {
+            return List.of();
+        }
+
+        List<Long> result = new ArrayList<>(Math.min(count, (int) Math.min(matched, entries.size())));
+        if (matched * matched >= (long) count * entries.size()) {
+            Iterator<Entry> iterator = ranking.iterator();
+            while (result.size() < count && iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (filter.contains(Math.toIntExact(entry.filmId()))) {
+                    result.add(entry.filmId());
+                }
+            }
+            return result;
+        }
+
+        PriorityQueue<Entry> heap = new PriorityQueue<>(BY_POPULARITY.reversed());
+        filter.forEach((int filmId) -> {
+            Entry entry = entries.get((long) filmId);
+            if (entry != null) {
+                heap.add(entry);
+                if (heap.size() > count) {
+                    heap.poll();
+                }
+            }
+        });
+        while (!heap.isEmpty()) {
+            result.add(heap.poll().filmId());
+        }
+        return result.reversed();
+    }
+
+    @EventListener
+    public synchronized void onFilmCreated(FilmCreatedEvent event) {
+        entries.computeIfAbsent(event.film().getId(), filmId -> {
+            Entry entry = new Entry(filmId, 0);
+            ranking.add(entry);
+            return entry;
+        });
+    }
+
+    @EventListener
+    public synchronized void onFilmsDeleted(FilmsDeletedEvent event) {
+        entries.clear();
+        ranking.clear();
+    }
+
+    @EventListener
+    public synchronized void onLikeAdded(LikeAddedEvent event) {
+        shift(event.filmId(), 1);
+    }
+
+    @EventListener
+    public synchronized void onLikeRemoved(LikeRemovedEvent event) {
+        shift(event.filmId(), -1);
+    }
+
+    // Рейтинг строится по счётчикам фильмов, поэтому после их исправления перечитывается целиком
+    @EventListener
+    public void onLikesCountsReconciled(LikesCountsReconciledEvent event) {
+        rebuild();
+    }
+
+    private void shift(Long filmId, int delta) {
+        Entry current = entries.get(filmId);
+        int likes = current == null ? 0 : current.likes();
+        if (current != null) {
+            ranking.remove(current);
+        }
+        put(filmId, Math.max(likes + delta, 0));
+    }
+
+    private void put(Long filmId, int likes) {
+        Entry entry = new Entry(filmId, likes);
+        entries.put(filmId, entry);
+        ranking.add(entry);
+    }
+
+    private record Entry(long filmId, int likes) {
+    }
+}
@@ -0,0 +1,228 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.event.LikeRemovedEvent;
+import ru.yandex.practicum.filmorate.exception.BadRequestException;
+import ru.yandex.practicum.filmorate.storage.dal.LikeRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Лайки фильмов за последний час, сутки и неделю по времени их постановки. У каждого фильма с недавними
+// лайками два кольцевых буфера: 60 минутных корзин и 168 часовых. Корзины меняются через CAS без блокировок,
+// история лайков не просматривается
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrendingIndex {
+    private static final int MINUTE_BUCKETS = 60;
+    private static final int HOUR_BUCKETS = 168;
+
+    private final LikeRepository likeRepository;
+
+    private final ConcurrentMap<Long, FilmCounters> counters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        counters.clear();
+        long nowMinute = currentMinute();
+        Instant since = Instant.ofEpochSecond(TimeUnit.MINUTES.toSeconds(nowMinute - Window.WEEK.minutes));
+        likeRepository.forEachLikeSince(since, (filmId, likedAt) -> add(filmId, minuteOf(likedAt)));
+        log.info("Индекс трендов построен, фильмов с лайками за неделю: {}", counters.size());
+    }
+
+    public List<Long> getTopFilmIds(Window window, int count) {
+        return getTopFilmIds(window, count, currentMinute());
+    }
+
+    @EventListener
+    public void onLikeAdded(LikeAddedEvent event) {
+        add(event.filmId(), minuteOf(event.likedAt()));
+    }
+
+    // Снятый лайк вычитается из корзин той минуты и того часа, когда он был поставлен
+    @EventListener
+    public void onLikeRemoved(LikeRemovedEvent event) {
+        remove(event.filmId(), minuteOf(event.likedAt()));
+    }
+
+    @EventListener
+    public void onFilmsDeleted(FilmsDeletedEvent event) {
+        counters.clear();
+    }
+
+    void add(Long filmId, long minute) {
+        counters.computeIfAbsent(filmId, id -> new FilmCounters()).add(minute);
+    }
+
+    void remove(Long filmId, long minute) {
+        FilmCounters filmCounters = counters.get(filmId);
+        if (filmCounters != null) {
+            filmCounters.remove(minute);
+        }
+    }
+
+    List<Long> getTopFilmIds(Window window, int count, long nowMinute) {
+        if (count <= 0) {
+            return List.of();
+        }
+        // Минимальная куча: в корне — худший из отобранных, при равном счёте хуже больший id
+        PriorityQueue<long[]> heap = new PriorityQueue<>((a, b) ->
+                a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(b[0], a[0]));
+        for (Map.Entry<Long, FilmCounters> entry : counters.entrySet()) {
+            FilmCounters filmCounters = entry.getValue();
+            if (filmCounters.isIdle(nowMinute)) {
+                // Гонка с новым лайком этого фильма возможна, но цена — один лайк фильма, молчавшего неделю
+                counters.remove(entry.getKey(), filmCounters);
+                continue;
+            }
+            long likes = filmCounters.sum(window, nowMinute);
+            if (likes <= 0) {
+                continue;
+            }
+            heap.add(new long[]{entry.getKey(), likes});
+            if (heap.size() > count) {
+                heap.poll();
+            }
+        }
+
+        List<Long> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll()[0]);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private static long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+
+    private static long minuteOf(Instant instant) {
+        return TimeUnit.MILLISECONDS.toMinutes(instant.toEpochMilli());
+    }
+
+    public enum Window {
+        HOUR("1h", 60),
+        DAY("24h", 24 * 60),
+        WEEK("7d", 7 * 24 * 60);
+
+        private final String value;
+        private final int minutes;
+
+        Window(String value, int minutes) {
+            this.value = value;
+            this.minutes = minutes;
+        }
+
+        public static Window of(String value) {
+            for (Window window : values()) {
+                if (window.value.equals(value)) {
+                    return window;
+                }
+            }
+            throw new BadRequestException("Неизвестное окно трендов: " + value + ", допустимы 1h, 24h и 7d");
+        }
+    }
+
+    // Корзина — long: старшие 32 бита — номер минуты или часа, младшие — число лайков в ней.
+    // Корзина с устаревшим номером при записи обнуляется, при чтении пропускается
+    private static final class FilmCounters {
+        private final AtomicLongArray minutes = new AtomicLongArray(MINUTE_BUCKETS);
+        private final AtomicLongArray hours = new AtomicLongArray(HOUR_BUCKETS);
+        private final AtomicInteger lastHour = new AtomicInteger();
+
+        void add(long minute) {
+            int hour = (int) (minute / 60);
+            increment(minutes, (int) minute);
+            increment(hours, hour);
+            lastHour.accumulateAndGet(hour, Math::max);
+        }
+
+        void remove(long minute) {
+            decrement(minutes, (int) minute);
+            decrement(hours, (int) (minute / 60));
+        }
+
+        // Час — минутные корзины, сутки и неделя — часовые, с точностью до начала текущего часа
+        long sum(Window window, long nowMinute) {
+            if (lastHour.get() < nowMinute / 60 - window.minutes / 60) {
+                return 0;
+            }
+            if (window == Window.HOUR) {
+                return sum(minutes, (int) nowMinute, MINUTE_BUCKETS);
+            }
+            return sum(hours, (int) (nowMinute / 60), window.minutes / 60);
+        }
+
+        boolean isIdle(long nowMinute) {
+            return lastHour.get() <= nowMinute / 60 - HOUR_BUCKETS;
+        }
+
+        private static void increment(AtomicLongArray buckets, int stamp) {
+            int slot = Math.floorMod(stamp, buckets.length());
+            while (true) {
+                long current = buckets.get(slot);
+                int currentStamp = (int) (current >>> 32);
+                long updated;
+                if (currentStamp == stamp) {
+                    updated = pack(stamp, (int) current + 1);
+                } else if (currentStamp < stamp) {
+                    updated = pack(stamp, 1);
+                } else {
+                    // Корзина уже занята более поздним периодом: запись старше кольца не учитывается
+                    return;
+                }
+                if (buckets.compareAndSet(slot, current, updated)) {
+                    return;
+                }
+            }
+        }
+
+        // Вычитать можно только из корзины своего периода: если её уже занял другой период,
+        // лайк выпал из кольца и ни в одном окне не учитывается
+        private static void decrement(AtomicLongArray buckets, int stamp) {
+            int slot = Math.floorMod(stamp, buckets.length());
+            while (true) {
+                long current = buckets.get(slot);
+                if ((int) (current >>> 32) != stamp || (int) current <= 0) {
+                    return;
+                }
+                if (buckets.compareAndSet(slot, current, pack(stamp, (int) current - 1))) {
+                    return;
+                }
+            }
+        }
+
+        private static long sum(AtomicLongArray buckets, int nowStamp, int span) {
+            long total = 0;
+            for (int slot = 0; slot < buckets.length(); slot++) {
+                long bucket = buckets.get(slot);
+                int stamp = (int) (bucket >>> 32);
+                if (stamp > nowStamp - span && stamp <= nowStamp) {
+                    total += (int) bucket;
+                }
+            }
+            return total;
+        }
+
+        private static long pack(int stamp, int count) {
+            return ((long) stamp << 32) | (count & 0xFFFFFFFFL);
+        }
+    }
+}
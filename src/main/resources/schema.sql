@@ -10,9 +10,18 @@ CREATE TABLE IF NOT EXISTS films (
     description  VARCHAR(200),
     release_date DATE NOT NULL,
     duration     INT NOT NULL,
-    mpa_id       BIGINT NOT NULL REFERENCES MPA (id) ON DELETE RESTRICT
+    mpa_id       BIGINT NOT NULL REFERENCES MPA (id) ON DELETE RESTRICT,
+    likes_count  INT NOT NULL DEFAULT 0,
+    CONSTRAINT chk_films_id_int CHECK (id <= 2147483647)
 );
 
+-- Счётчик лайков для баз, созданных до его появления; расхождения с film_likes исправляет сверка
+ALTER TABLE films ADD COLUMN IF NOT EXISTS likes_count INT NOT NULL DEFAULT 0;
+-- Индексы в памяти хранят id фильмов и пользователей как int: больший id отклоняется при вставке,
+-- а не ломает обработчик события уже после фиксации транзакции
+ALTER TABLE films ADD CONSTRAINT IF NOT EXISTS chk_films_id_int CHECK (id <= 2147483647);
+CREATE INDEX IF NOT EXISTS idx_films_likes_count ON films (likes_count DESC, id);
+
 CREATE TABLE IF NOT EXISTS genres (
     id   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(50) NOT NULL UNIQUE
@@ -29,15 +38,28 @@ CREATE TABLE IF NOT EXISTS users (
     email    VARCHAR(255) NOT NULL UNIQUE,
     login    VARCHAR(50) NOT NULL UNIQUE,
     name     VARCHAR(255),
-    birthday DATE
+    birthday DATE,
+    CONSTRAINT chk_users_id_int CHECK (id <= 2147483647)
 );
 
+ALTER TABLE users ADD CONSTRAINT IF NOT EXISTS chk_users_id_int CHECK (id <= 2147483647);
+
 CREATE TABLE IF NOT EXISTS film_likes (
     film_id  BIGINT NOT NULL REFERENCES films(id) ON DELETE CASCADE,
     user_id  BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    created_at TIMESTAMP DEFAULT LOCALTIMESTAMP,
     PRIMARY KEY (film_id, user_id)
 );
 
+-- Время лайков, поставленных до появления колонки, неизвестно и остаётся пустым: в тренды они не попадают
+ALTER TABLE film_likes ADD COLUMN IF NOT EXISTS created_at TIMESTAMP;
+ALTER TABLE film_likes ALTER COLUMN created_at SET DEFAULT LOCALTIMESTAMP;
+
+-- Выборки по film_id обслуживает первичный ключ (film_id, user_id), отдельный индекс не нужен
+DROP INDEX IF EXISTS idx_film_likes_film_id;
+CREATE INDEX IF NOT EXISTS idx_film_likes_user_id ON film_likes (user_id);
+CREATE INDEX IF NOT EXISTS idx_film_likes_created_at ON film_likes (created_at);
+
 CREATE TABLE IF NOT EXISTS friendship_status (
     id   SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(20) NOT NULL UNIQUE
@@ -0,0 +1,133 @@
+package ru.yandex.practicum.filmorate.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.monitoring.QueryStats;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StructuredExecutorTest {
+    private final StructuredExecutor structuredExecutor = new StructuredExecutor();
+
+    @AfterEach
+    void tearDown() {
+        structuredExecutor.shutdown();
+        QueryStats.stop();
+    }
+
+    @Test
+    void fork_ShouldRunInCallerThreadWhenDisabled() {
+        try (StructuredExecutor.Scope scope = structuredExecutor.open()) {
+            Supplier<Thread> thread = scope.fork(Thread::currentThread);
+            scope.join();
+
+            assertThat(thread.get()).isSameAs(Thread.currentThread());
+        }
+    }
+
+    @Test
+    void fork_ShouldRunSubtasksConcurrently() {
+        ReflectionTestUtils.setField(structuredExecutor, "enabled", true);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        try (StructuredExecutor.Scope scope = structuredExecutor.open()) {
+            Supplier<Boolean> first = scope.fork(() -> awaitOther(bothStarted));
+            Supplier<Boolean> second = scope.fork(() -> awaitOther(bothStarted));
+            scope.join();
+
+            assertThat(first.get()).isTrue();
+            assertThat(second.get()).isTrue();
+        }
+    }
+
+    @Test
+    void join_ShouldRethrowFailureAndCancelOtherSubtasks() throws InterruptedException {
+        ReflectionTestUtils.setField(structuredExecutor, "enabled", true);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        try (StructuredExecutor.Scope scope = structuredExecutor.open()) {
+            scope.fork(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            });
+            // Отменённая до запуска подзадача не стартует вовсе, прерывание проверяется у уже работающей
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            scope.fork(() -> {
+                throw new NotFoundException("Пользователь не найден");
+            });
+
+            assertThatThrownBy(scope::join)
+                    .isInstanceOf(NotFoundException.class)
+                    .hasMessage("Пользователь не найден");
+        }
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void join_ShouldWaitForCancelledSubtasksToFinish() throws InterruptedException {
+        ReflectionTestUtils.setField(structuredExecutor, "enabled", true);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+
+        try (StructuredExecutor.Scope scope = structuredExecutor.open()) {
+            scope.fork(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    // Как запрос к БД, не реагирующий на прерывание сразу
+                    long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                    while (System.nanoTime() < until) {
+                        Thread.onSpinWait();
+                    }
+                    finished.set(true);
+                }
+                return null;
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            scope.fork(() -> {
+                throw new NotFoundException("Пользователь не найден");
+            });
+
+            assertThatThrownBy(scope::join).isInstanceOf(NotFoundException.class);
+            assertThat(finished).isTrue();
+        }
+    }
+
+    @Test
+    void fork_ShouldPropagateQueryStatsToSubtasks() {
+        ReflectionTestUtils.setField(structuredExecutor, "enabled", true);
+        QueryStats stats = QueryStats.start();
+
+        try (StructuredExecutor.Scope scope = structuredExecutor.open()) {
+            Supplier<QueryStats> subtaskStats = scope.fork(QueryStats::current);
+            scope.join();
+
+            assertThat(subtaskStats.get()).isSameAs(stats);
+        }
+    }
+
+    private static boolean awaitOther(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
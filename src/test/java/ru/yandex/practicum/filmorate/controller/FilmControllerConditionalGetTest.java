@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.storage.cache.ResourceVersions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase()
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmControllerConditionalGetTest {
+
+    private final MockMvc mockMvc;
+    private final ResourceVersions resourceVersions;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void getFilm_ShouldReturnNotFoundForMissingIdWithValidTag() throws Exception {
+        long missingId = 999_999L;
+
+        mockMvc.perform(get("/films/{id}", missingId)
+                        .header(HttpHeaders.IF_NONE_MATCH, resourceVersions.getFilmTag(missingId)))
+                .andExpect(status().isNotFound());
+    }
+
+    // Фильмы вставлены в обход сервиса, поэтому до первого чтения они неизвестны индексу версий
+    @Test
+    void getFilm_ShouldAnswerNotModifiedOnlyForTagOfSameFilm() throws Exception {
+        long filmA = insertFilm("Фильм A");
+        long filmB = insertFilm("Фильм B");
+        String tagA = resourceVersions.getFilmTag(filmA);
+
+        // Первый ответ без метки: сервер ещё не выдавал её клиентам
+        mockMvc.perform(get("/films/{id}", filmA).header(HttpHeaders.IF_NONE_MATCH, tagA))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        mockMvc.perform(get("/films/{id}", filmA).header(HttpHeaders.IF_NONE_MATCH, tagA))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/films/{id}", filmB))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/films/{id}", filmB).header(HttpHeaders.IF_NONE_MATCH, tagA))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, resourceVersions.getFilmTag(filmB)));
+    }
+
+    private long insertFilm(String name) {
+        jdbcTemplate.update("""
+                    INSERT INTO films (name, description, release_date, duration, mpa_id)
+                    VALUES (?, 'Описание', DATE '2000-01-01', 100, 1)
+                """, name);
+        return jdbcTemplate.queryForObject("SELECT id FROM films WHERE name = ?", Long.class, name);
+    }
+}
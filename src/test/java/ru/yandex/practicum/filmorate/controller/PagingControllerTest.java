@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase()
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class PagingControllerTest {
+
+    private final MockMvc mockMvc;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void getFilms_ShouldReturnPageForCursorWithoutLimit() throws Exception {
+        jdbcTemplate.update("""
+                    INSERT INTO films (name, description, release_date, duration, mpa_id)
+                    VALUES ('Фильм', 'Описание', DATE '2000-01-01', 100, 1)
+                """);
+        long filmId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM films", Long.class);
+
+        mockMvc.perform(get("/films").param("after", String.valueOf(filmId - 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(filmId))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        mockMvc.perform(get("/films").param("after", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUsers_ShouldReturnPageForCursorWithoutLimit() throws Exception {
+        jdbcTemplate.update("""
+                    INSERT INTO users (email, login, name, birthday)
+                    VALUES ('paging@test.com', 'paging', 'User', DATE '1990-01-01')
+                """);
+        long userId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM users", Long.class);
+
+        mockMvc.perform(get("/users").param("after", String.valueOf(userId - 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(userId))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+}
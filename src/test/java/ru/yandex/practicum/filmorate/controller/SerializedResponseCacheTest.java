@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerializedResponseCacheTest {
+
+    private final SerializedResponseCache cache =
+            new SerializedResponseCache(new ObjectMapper(), 2, Duration.ofDays(1));
+
+    @Test
+    void referenceData_ShouldSerializeOncePerVersion() {
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.referenceData("genres", "\"v1\"", request(null), () -> List.of(calls.incrementAndGet()));
+        ResponseEntity<byte[]> cached = cache.referenceData("genres", "\"v1\"", request(null),
+                () -> List.of(calls.incrementAndGet()));
+        ResponseEntity<byte[]> refreshed = cache.referenceData("genres", "\"v2\"", request(null),
+                () -> List.of(calls.incrementAndGet()));
+
+        assertThat(new String(cached.getBody(), StandardCharsets.UTF_8)).isEqualTo("[1]");
+        assertThat(new String(refreshed.getBody(), StandardCharsets.UTF_8)).isEqualTo("[2]");
+        assertThat(refreshed.getHeaders().getETag()).isEqualTo("\"v2\"");
+        assertThat(refreshed.getHeaders().getCacheControl()).isEqualTo("max-age=86400, public");
+    }
+
+    @Test
+    void film_ShouldSendGzipWhenClientAcceptsIt() throws IOException {
+        ResponseEntity<byte[]> response =
+                cache.film(1L, "\"v1\"", true, request("gzip, deflate"), () -> List.of("Фильм"));
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("[\"Фильм\"]");
+        }
+    }
+
+    @Test
+    void film_ShouldSendPlainJsonWhenGzipIsRefused() {
+        for (String acceptEncoding : List.of("gzip;q=0", "deflate, GZIP ; q=0.0", "x-gzip", "*;q=0", "br")) {
+            ResponseEntity<byte[]> response =
+                    cache.film(1L, "\"v1\"", true, request(acceptEncoding), () -> List.of(1));
+
+            assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isNull();
+            assertThat(new String(response.getBody(), StandardCharsets.UTF_8)).isEqualTo("[1]");
+        }
+    }
+
+    @Test
+    void film_ShouldOmitETagUntilFilmIsKnown() {
+        ResponseEntity<byte[]> response = cache.film(1L, "\"v1\"", false, request(null), () -> List.of(1));
+
+        assertThat(response.getHeaders().getETag()).isNull();
+        assertThat(cache.film(1L, "\"v1\"", true, request(null), () -> List.of(2)).getHeaders().getETag())
+                .isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void acceptsGzip_ShouldHonourWeightsAndWildcard() {
+        assertThat(SerializedResponseCache.acceptsGzip("br;q=1.0, gzip;q=0.5")).isTrue();
+        assertThat(SerializedResponseCache.acceptsGzip("*")).isTrue();
+        assertThat(SerializedResponseCache.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(SerializedResponseCache.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    void film_ShouldEvictLeastRecentlyUsedFilms() {
+        AtomicInteger calls = new AtomicInteger();
+        cache.film(1L, "\"v\"", true, request(null), calls::incrementAndGet);
+        cache.film(2L, "\"v\"", true, request(null), calls::incrementAndGet);
+        cache.film(1L, "\"v\"", true, request(null), calls::incrementAndGet);
+        cache.film(3L, "\"v\"", true, request(null), calls::incrementAndGet);
+
+        cache.film(1L, "\"v\"", true, request(null), calls::incrementAndGet);
+        assertThat(calls).hasValue(3);
+        cache.film(2L, "\"v\"", true, request(null), calls::incrementAndGet);
+        assertThat(calls).hasValue(4);
+    }
+
+    private static WebRequest request(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return new ServletWebRequest(request);
+    }
+}
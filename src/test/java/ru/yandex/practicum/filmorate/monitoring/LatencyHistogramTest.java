@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void indexOf_ShouldBeContiguousAndCoverBucketBounds() {
+        int previous = -1;
+        for (long micros = 0; micros < 100_000; micros++) {
+            int index = LatencyHistogram.indexOf(micros);
+            assertThat(index).isBetween(previous, previous + 1);
+            assertThat(LatencyHistogram.highestValueAt(index)).isGreaterThanOrEqualTo(micros);
+            previous = index;
+        }
+    }
+
+    @Test
+    void snapshot_ShouldReportPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 10_000; micros++) {
+            histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count()).isEqualTo(10_000);
+        assertThat(snapshot.p50Ms()).isCloseTo(5.0, within(5.0 * 0.04));
+        assertThat(snapshot.p99Ms()).isCloseTo(9.9, within(9.9 * 0.04));
+        assertThat(snapshot.p999Ms()).isCloseTo(9.99, within(9.99 * 0.04));
+        assertThat(snapshot.maxMs()).isEqualTo(10.0);
+    }
+
+    @Test
+    void intervalSnapshot_ShouldResetOnlyIntervalCounters() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(3));
+
+        assertThat(histogram.intervalSnapshot().count()).isEqualTo(1);
+        histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(1));
+
+        LatencyHistogram.Snapshot interval = histogram.intervalSnapshot();
+        assertThat(interval.count()).isEqualTo(1);
+        assertThat(interval.maxMs()).isEqualTo(1.0);
+        assertThat(histogram.snapshot().count()).isEqualTo(2);
+        assertThat(histogram.snapshot().maxMs()).isEqualTo(3.0);
+    }
+}
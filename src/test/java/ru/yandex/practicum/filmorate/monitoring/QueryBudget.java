@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Проверка бюджета SQL-выражений; в контекст теста нужно подключить QueryStatsDataSourcePostProcessor
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class QueryBudget {
+
+    public static <T> T assertMaxQueries(int maxStatements, Supplier<T> action) {
+        QueryStats stats = QueryStats.start();
+        try {
+            T result = action.get();
+            assertThat(stats.getStatementCount())
+                    .as("Число SQL-выражений")
+                    .isLessThanOrEqualTo(maxStatements);
+            return result;
+        } finally {
+            QueryStats.stop();
+        }
+    }
+
+    public static void assertMaxQueries(int maxStatements, Runnable action) {
+        assertMaxQueries(maxStatements, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteLatencyRecorderTest {
+
+    private final RouteLatencyRecorder recorder = new RouteLatencyRecorder();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void afterCompletion_ShouldTimeAsyncRequestFromInitialDispatch() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new Object(), Object.class.getMethod("toString"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/films/stream");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/films/stream");
+
+        recorder.preHandle(request, response, handler);
+        recorder.afterConcurrentHandlingStarted(request, response, handler);
+        assertThat(recorder.getMetrics()).isEmpty();
+
+        Thread.sleep(20);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        Thread asyncDispatch = new Thread(() -> {
+            recorder.preHandle(request, response, handler);
+            recorder.afterCompletion(request, response, handler, null);
+        });
+        asyncDispatch.start();
+        asyncDispatch.join();
+
+        RouteLatencyRecorder.RouteMetrics metrics = recorder.getMetrics().getFirst();
+        assertThat(metrics.route()).isEqualTo("GET /films/stream");
+        assertThat(metrics.cumulative().count()).isEqualTo(1);
+        assertThat(metrics.cumulative().maxMs()).isGreaterThanOrEqualTo(19);
+    }
+
+    @Test
+    void afterCompletion_ShouldSkipRequestsWithoutStartTime() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new Object(), Object.class.getMethod("toString"));
+
+        recorder.afterCompletion(new MockHttpServletRequest("GET", "/films"), response, handler, null);
+
+        assertThat(recorder.getMetrics()).isEmpty();
+    }
+}
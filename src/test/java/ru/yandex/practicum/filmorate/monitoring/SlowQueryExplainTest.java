@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.storage.dal.LikeRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Без транзакции теста: поток EXPLAIN работает на своём соединении и должен видеть закоммиченные данные
+@JdbcTest(properties = {
+        "filmorate.monitoring.slow-queries.threshold-ms=0",
+        "filmorate.monitoring.slow-queries.explain-every=1"
+})
+@AutoConfigureTestDatabase()
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({SlowQueryLog.class, QueryStatsDataSourcePostProcessor.class, LikeRepository.class})
+class SlowQueryExplainTest {
+    private static final String COUNT_LIKE = "SELECT COUNT(*) FROM film_likes WHERE film_id = ? AND user_id = ?";
+
+    private final SlowQueryLog slowQueryLog;
+    private final LikeRepository likeRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private long filmId;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                    INSERT INTO films (id, name, description, release_date, duration, mpa_id)
+                    VALUES (900001, 'Фильм', 'Описание', DATE '2000-01-01', 100, 1)
+                """);
+        jdbcTemplate.update("""
+                    INSERT INTO users (id, email, login, name, birthday)
+                    VALUES (900001, 'explain@test.com', 'explain', 'User', DATE '1990-01-01')
+                """);
+        filmId = 900001;
+        userId = 900001;
+        slowQueryLog.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM films WHERE id = ?", filmId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void record_ShouldNotReplaySampledRemoveLike() throws InterruptedException {
+        likeRepository.addLike(filmId, userId);
+        likeRepository.removeLike(filmId, userId);
+        likeRepository.addLike(filmId, userId);
+
+        jdbcTemplate.queryForObject(COUNT_LIKE, Integer.class, filmId, userId);
+        awaitProbePlan();
+
+        assertThat(jdbcTemplate.queryForObject(COUNT_LIKE, Integer.class, filmId, userId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT likes_count FROM films WHERE id = ?", Integer.class, filmId))
+                .isEqualTo(1);
+    }
+
+    // Поток EXPLAIN один и берёт задачи по очереди: план последнего чтения готов — все ранние задачи выполнены
+    private void awaitProbePlan() throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(5));
+        while (Instant.now().isBefore(deadline)) {
+            boolean explained = slowQueryLog.getEntries().stream()
+                    .anyMatch(entry -> entry.sql().equals(COUNT_LIKE) && entry.plan() != null);
+            if (explained) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("План контрольного запроса не получен");
+    }
+}
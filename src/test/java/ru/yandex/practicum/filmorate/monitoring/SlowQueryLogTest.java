@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.storage.dal.UserRepository;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.UserRowMapper;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = {
+        "filmorate.monitoring.slow-queries.threshold-ms=0",
+        "filmorate.monitoring.slow-queries.capacity=3",
+        "filmorate.monitoring.slow-queries.explain-every=0"
+})
+@AutoConfigureTestDatabase()
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({SlowQueryLog.class, QueryStatsDataSourcePostProcessor.class, UserRepository.class, UserRowMapper.class})
+class SlowQueryLogTest {
+
+    private final SlowQueryLog slowQueryLog;
+    private final UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        slowQueryLog.clear();
+    }
+
+    @Test
+    void record_ShouldCaptureQueryNameAndParameters() {
+        userRepository.getUsers(5, 10);
+
+        SlowQueryLog.SlowQuery entry = slowQueryLog.getEntries().getFirst();
+        assertThat(entry.name()).isEqualTo("UserRepository.FIND_PAGE");
+        assertThat(entry.parameters()).containsExactly("5", "10");
+        assertThat(entry.durationMs()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void record_ShouldResolveExpandedInListToConstant() {
+        userRepository.getUsersByIds(List.of(1L, 2L, 3L));
+
+        assertThat(slowQueryLog.getEntries().getFirst().name()).isEqualTo("UserRepository.FIND_BY_IDS");
+    }
+
+    @Test
+    void getEntries_ShouldKeepOnlyLatestEntriesNewestFirst() {
+        User user = User.builder()
+                .email("user@test.com")
+                .login("user")
+                .name("User")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+        userRepository.create(user);
+        userRepository.getUser(user.getId());
+        userRepository.getUsers(0, 1);
+        userRepository.getUsers();
+
+        assertThat(slowQueryLog.getEntries())
+                .extracting(SlowQueryLog.SlowQuery::name)
+                .containsExactly("UserRepository.FIND_ALL", "UserRepository.FIND_PAGE", "UserRepository.FIND_BY_ID");
+    }
+}
@@ -0,0 +1,114 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.concurrent.StructuredExecutor;
+import ru.yandex.practicum.filmorate.dto.user.UserDto;
+import ru.yandex.practicum.filmorate.exception.BadRequestException;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.monitoring.QueryStatsDataSourcePostProcessor;
+import ru.yandex.practicum.filmorate.storage.dal.FriendshipRepository;
+import ru.yandex.practicum.filmorate.storage.dal.LikeRepository;
+import ru.yandex.practicum.filmorate.storage.dal.UserRepository;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.UserRowMapper;
+import ru.yandex.practicum.filmorate.storage.index.FriendshipGraph;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static ru.yandex.practicum.filmorate.monitoring.QueryBudget.assertMaxQueries;
+
+@JdbcTest
+@AutoConfigureTestDatabase()
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({QueryStatsDataSourcePostProcessor.class, StructuredExecutor.class, UserService.class, UserRepository.class,
+        UserRowMapper.class, FriendshipRepository.class, FriendshipGraph.class, LikeRepository.class})
+class UserServiceQueryCountTest {
+
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final FriendshipRepository friendshipRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private User stranger;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM friends");
+        userRepository.deleteUsers();
+
+        user = createUser("user");
+        stranger = createUser("stranger");
+        for (int i = 0; i < 20; i++) {
+            User friend = createUser("friend" + i);
+            friendshipRepository.addFriend(user.getId(), friend.getId());
+        }
+    }
+
+    @Test
+    void getUserFriends_ShouldUseConstantNumberOfQueries() {
+        // Проверка пользователя и один запрос друзей с профилями
+        List<UserDto> friends = assertMaxQueries(2, () -> userService.getUserFriends(user.getId()));
+
+        assertThat(friends).hasSize(20);
+    }
+
+    @Test
+    void addFriend_ShouldStayWithinQueryBudget() {
+        // Вставка одним выражением и чтение пользователя для ответа
+        assertMaxQueries(2, () -> userService.addFriend(user.getId(), stranger.getId()));
+
+        assertThat(friendshipRepository.getFriendProfiles(user.getId()))
+                .extracting(User::getId)
+                .contains(stranger.getId());
+    }
+
+    @Test
+    void addFriend_ShouldTranslateConstraintViolations() {
+        assertThatThrownBy(() -> userService.addFriend(user.getId(), 999_999L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("999999");
+        assertThatThrownBy(() -> userService.addFriend(999_999L, user.getId()))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("999999");
+        assertThatThrownBy(() -> userService.addFriend(user.getId(), user.getId()))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> userService.addFriend(999_999L, 999_999L))
+                .isInstanceOf(NotFoundException.class);
+
+        userService.addFriend(user.getId(), stranger.getId());
+        assertThatThrownBy(() -> userService.addFriend(user.getId(), stranger.getId()))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void removeFriend_ShouldUseSingleStatementWhenFriendshipExists() {
+        userService.addFriend(user.getId(), stranger.getId());
+
+        assertMaxQueries(1, () -> userService.removeFriend(user.getId(), stranger.getId()));
+        assertThatThrownBy(() -> userService.removeFriend(user.getId(), 999_999L))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private User createUser(String login) {
+        User created = User.builder()
+                .email(login + "@test.com")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+        userRepository.create(created);
+        return created;
+    }
+}
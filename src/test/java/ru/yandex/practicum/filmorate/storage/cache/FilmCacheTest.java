@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.event.FilmUpdatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.event.LikeRemovedEvent;
+import ru.yandex.practicum.filmorate.model.film.Film;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilmCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Long, Film> loader = id -> {
+        loads.incrementAndGet();
+        return Film.builder()
+                .id(id)
+                .name("Фильм " + id)
+                .likesCount(1)
+                .build();
+    };
+
+    @Test
+    void get_ShouldLoadOnceAndCountHitsAndMisses() {
+        FilmCache cache = new FilmCache(10);
+
+        Film first = cache.get(1L, loader);
+        Film second = cache.get(1L, loader);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getStats())
+                .extracting(FilmCache.Stats::hits, FilmCache.Stats::misses)
+                .containsExactly(1L, 1L);
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsedFilm() {
+        FilmCache cache = new FilmCache(2);
+
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        cache.get(1L, loader);
+        cache.get(3L, loader);
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+
+        assertThat(loads).hasValue(4);
+        assertThat(cache.getStats().evictions()).isEqualTo(2);
+        assertThat(cache.getStats().size()).isEqualTo(2);
+    }
+
+    @Test
+    void likeEvents_ShouldInvalidateCachedCopy() {
+        FilmCache cache = new FilmCache(10);
+        cache.get(1L, loader);
+
+        cache.onLikeAdded(new LikeAddedEvent(1L, 200L, Instant.now()));
+        cache.get(1L, loader);
+        cache.onLikeRemoved(new LikeRemovedEvent(1L, 100L, Instant.now()));
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void likeEvent_ShouldNotDoubleCountFilmLoadedAfterCommit() {
+        FilmCache cache = new FilmCache(10);
+        AtomicInteger likesInDb = new AtomicInteger();
+        Function<Long, Film> dbLoader = id -> Film.builder().id(id).likesCount(likesInDb.get()).build();
+
+        // Лайк записан в БД, другой запрос успевает загрузить фильм до того, как придёт событие
+        likesInDb.incrementAndGet();
+        cache.get(1L, dbLoader);
+        cache.onLikeAdded(new LikeAddedEvent(1L, 200L, Instant.now()));
+
+        assertThat(cache.get(1L, dbLoader).getLikesCount()).isEqualTo(1);
+    }
+
+    @Test
+    void filmEvents_ShouldInvalidateEntries() {
+        FilmCache cache = new FilmCache(10);
+        Film film = cache.get(1L, loader);
+        cache.get(2L, loader);
+
+        cache.onFilmUpdated(new FilmUpdatedEvent(film));
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        assertThat(loads).hasValue(3);
+
+        cache.onFilmsDeleted(new FilmsDeletedEvent());
+        assertThat(cache.getStats().size()).isZero();
+    }
+
+    @Test
+    void get_ShouldNotCacheLoadInvalidatedWhileInFlight() {
+        FilmCache cache = new FilmCache(10);
+
+        cache.get(1L, id -> {
+            cache.onLikeAdded(new LikeAddedEvent(id, 300L, Instant.now()));
+            return loader.apply(id);
+        });
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_ShouldBypassCacheWhenDisabled() {
+        FilmCache cache = new FilmCache(0);
+
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+}
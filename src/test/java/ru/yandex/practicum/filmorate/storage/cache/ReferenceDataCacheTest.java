@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.model.film.MPA;
+import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.dal.MpaRepository;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.MpaRowMapper;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase()
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({ReferenceDataCache.class, MpaRepository.class, MpaRowMapper.class, GenreRepository.class, GenreRowMapper.class})
+class ReferenceDataCacheTest {
+
+    private final ReferenceDataCache referenceDataCache;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void getAllMpa_ShouldReturnPreloadedRatingsInIdOrder() {
+        assertThat(referenceDataCache.getAllMpa())
+                .extracting(MPA::getName)
+                .containsExactly("G", "PG", "PG-13", "R", "NC-17");
+    }
+
+    @Test
+    void getMpa_ShouldReturnCanonicalInstance() {
+        assertThat(referenceDataCache.getMpa(1L)).isSameAs(referenceDataCache.getMpa(1L));
+        assertThatThrownBy(() -> referenceDataCache.getMpa(999L))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void getGenres_ShouldSkipUnknownIdsAndSortById() {
+        assertThat(referenceDataCache.getGenres(List.of(3L, 999L, 1L)))
+                .extracting(Genre::getId)
+                .containsExactly(1L, 3L);
+        assertThat(referenceDataCache.getExistingGenreIds(Set.of(2L, 999L)))
+                .containsExactly(2L);
+    }
+
+    @Test
+    void reload_ShouldPickUpNewGenres() {
+        jdbcTemplate.update("INSERT INTO genres (id, name) VALUES (100, 'Новый жанр')");
+        assertThat(referenceDataCache.findGenre(100L)).isEmpty();
+
+        referenceDataCache.reload();
+
+        assertThat(referenceDataCache.findGenre(100L))
+                .map(Genre::getName)
+                .contains("Новый жанр");
+    }
+}
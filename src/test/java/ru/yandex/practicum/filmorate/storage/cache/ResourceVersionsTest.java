@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.event.FilmUpdatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.dal.MpaRepository;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.MpaRowMapper;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase()
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({ResourceVersions.class, ReferenceDataCache.class, MpaRepository.class, MpaRowMapper.class,
+        GenreRepository.class, GenreRowMapper.class})
+class ResourceVersionsTest {
+
+    private final ResourceVersions resourceVersions;
+    private final ReferenceDataCache referenceDataCache;
+
+    @Test
+    void filmEvents_ShouldChangeTagsOfTouchedFilmAndCollectionOnly() {
+        String filmsTag = resourceVersions.getFilmsTag();
+        String film1Tag = resourceVersions.getFilmTag(1L);
+        String film2Tag = resourceVersions.getFilmTag(2L);
+
+        resourceVersions.onFilmUpdated(new FilmUpdatedEvent(Film.builder().id(1L).build()));
+
+        assertThat(resourceVersions.getFilmsTag()).isNotEqualTo(filmsTag);
+        assertThat(resourceVersions.getFilmTag(1L)).isNotEqualTo(film1Tag);
+        assertThat(resourceVersions.getFilmTag(2L)).isEqualTo(film2Tag);
+
+        String likedTag = resourceVersions.getFilmTag(1L);
+        resourceVersions.onLikeAdded(new LikeAddedEvent(1L, 5L, Instant.now()));
+        assertThat(resourceVersions.getFilmTag(1L)).isNotEqualTo(likedTag);
+    }
+
+    @Test
+    void onFilmsDeleted_ShouldNeverRestorePreviousTags() {
+        String untouchedTag = resourceVersions.getFilmTag(2L);
+        resourceVersions.onLikeAdded(new LikeAddedEvent(1L, 5L, Instant.now()));
+        String touchedTag = resourceVersions.getFilmTag(1L);
+
+        resourceVersions.onFilmsDeleted(new FilmsDeletedEvent());
+
+        assertThat(resourceVersions.getFilmTag(1L)).isNotIn(untouchedTag, touchedTag);
+        assertThat(resourceVersions.getFilmTag(2L)).isNotIn(untouchedTag, touchedTag);
+    }
+
+    @Test
+    void getFilmTag_ShouldDifferBetweenUntouchedFilms() {
+        assertThat(resourceVersions.getFilmTag(3L)).isNotEqualTo(resourceVersions.getFilmTag(4L));
+    }
+
+    @Test
+    void markFilmFound_ShouldKnowOnlyFilmsFoundSinceLastDeletion() {
+        String tag = resourceVersions.getFilmTag(7L);
+        assertThat(resourceVersions.isFilmKnown(7L)).isFalse();
+
+        resourceVersions.markFilmFound(7L, tag);
+        assertThat(resourceVersions.isFilmKnown(7L)).isTrue();
+        assertThat(resourceVersions.getFilmTag(7L)).isEqualTo(tag);
+
+        String staleTag = resourceVersions.getFilmTag(8L);
+        resourceVersions.onFilmsDeleted(new FilmsDeletedEvent());
+        resourceVersions.markFilmFound(8L, staleTag);
+        assertThat(resourceVersions.isFilmKnown(7L)).isFalse();
+        assertThat(resourceVersions.isFilmKnown(8L)).isFalse();
+    }
+
+    @Test
+    void getReferenceDataTag_ShouldBeStrongAndChangeOnReload() {
+        String tag = resourceVersions.getReferenceDataTag();
+        assertThat(tag).startsWith("\"").endsWith("\"");
+
+        referenceDataCache.reload();
+        assertThat(resourceVersions.getReferenceDataTag()).isNotEqualTo(tag);
+    }
+}
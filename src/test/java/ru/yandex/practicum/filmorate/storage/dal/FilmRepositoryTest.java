@@ -10,11 +10,13 @@ import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.FilmRowMapper;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.MpaRowMapper;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,8 +25,8 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 @JdbcTest
 @AutoConfigureTestDatabase()
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({FilmRepository.class, FilmRowMapper.class, MpaRepository.class, MpaRowMapper.class,
-        GenreRepository.class, GenreRowMapper.class, LikeRepository.class})
+@Import({FilmRepository.class, FilmRowMapper.class, ReferenceDataCache.class, MpaRepository.class,
+        MpaRowMapper.class, GenreRepository.class, GenreRowMapper.class, LikeRepository.class})
 class FilmRepositoryTest {
 
     private final FilmRepository filmRepository;
@@ -69,6 +71,27 @@ class FilmRepositoryTest {
                 .isEqualTo(film1);
     }
 
+    @Test
+    void createAll_ShouldAssignGeneratedIdsInOrder() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            films.add(Film.builder()
+                    .name("Пакет " + i)
+                    .description("Описание")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(100 + i)
+                    .mpa(mpaRepository.findById(2L))
+                    .build());
+        }
+
+        filmRepository.createAll(films);
+
+        assertThat(films).allSatisfy(film -> assertThat(film.getId()).isGreaterThan(film2.getId()));
+        assertThat(filmRepository.getFilmsByIds(films.stream().map(Film::getId).toList()))
+                .extracting(Film::getName)
+                .containsExactly("Пакет 0", "Пакет 1", "Пакет 2");
+    }
+
     @Test
     void getFilms_ShouldReturnAllFilms() {
         List<Film> films = filmRepository.getFilms();
@@ -78,6 +101,52 @@ class FilmRepositoryTest {
                 .containsExactlyInAnyOrder("Фильм 1", "Фильм 2");
     }
 
+    @Test
+    void getFilmsPage_ShouldReturnFilmsAfterCursor() {
+        assertThat(filmRepository.getFilms(0, 1))
+                .extracting(Film::getId)
+                .containsExactly(film1.getId());
+        assertThat(filmRepository.getFilms(film1.getId(), 10))
+                .extracting(Film::getId)
+                .containsExactly(film2.getId());
+        assertThat(filmRepository.getFilms(film2.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void streamFilms_ShouldPassEveryFilmInIdOrder() {
+        List<Film> streamed = new ArrayList<>();
+        filmRepository.streamFilms(1, streamed::add);
+
+        assertThat(streamed)
+                .extracting(Film::getId)
+                .containsExactly(film1.getId(), film2.getId());
+    }
+
+    @Test
+    void getFilmsByIds_ShouldKeepRequestedOrder() {
+        List<Film> films = filmRepository.getFilmsByIds(List.of(film2.getId(), film1.getId()));
+
+        assertThat(films)
+                .extracting(Film::getId)
+                .containsExactly(film2.getId(), film1.getId());
+    }
+
+    @Test
+    void getPopularFilms_ShouldOrderByLikesThenById() {
+        jdbcTemplate.execute("DELETE FROM users");
+        jdbcTemplate.update("INSERT INTO users(email, login, name, birthday) VALUES ('u@test.com', 'u', 'u', DATE '1990-01-01')");
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE login = 'u'", Long.class);
+        jdbcTemplate.update("INSERT INTO film_likes(film_id, user_id) VALUES (?, ?)", film2.getId(), userId);
+        jdbcTemplate.update("UPDATE films SET likes_count = likes_count + 1 WHERE id = ?", film2.getId());
+
+        assertThat(filmRepository.getPopularFilms(10))
+                .extracting(Film::getId)
+                .containsExactly(film2.getId(), film1.getId());
+        assertThat(filmRepository.getPopularFilms(1))
+                .extracting(Film::getId)
+                .containsExactly(film2.getId());
+    }
+
     @Test
     void update_ShouldModifyExistingFilm() {
         film2.setName("Обновленное название");
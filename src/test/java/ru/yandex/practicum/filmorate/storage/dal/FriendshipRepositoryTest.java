@@ -8,21 +8,20 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
-import ru.yandex.practicum.filmorate.model.user.Friends;
-import ru.yandex.practicum.filmorate.model.user.FriendshipStatus;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.user.User;
-import ru.yandex.practicum.filmorate.storage.dal.rowmapper.FriendsRowMapper;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.UserRowMapper;
 
 import java.time.LocalDate;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @JdbcTest
 @AutoConfigureTestDatabase()
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({FriendshipRepository.class, FriendsRowMapper.class, UserRepository.class, UserRowMapper.class})
+@Import({FriendshipRepository.class, UserRepository.class, UserRowMapper.class})
 class FriendshipRepositoryTest {
 
     private final FriendshipRepository friendshipRepository;
@@ -66,39 +65,46 @@ class FriendshipRepositoryTest {
     }
 
     @Test
-    void addFriend_ShouldCreateFriendship() {
+    void addFriend_ShouldCreateRequestedFriendship() {
         friendshipRepository.addFriend(user1.getId(), user2.getId());
 
-        assertThat(friendshipRepository.friendshipExists(user1.getId(), user2.getId()))
-                .isTrue();
-
+        String status = jdbcTemplate.queryForObject("""
+                    SELECT fs.name
+                    FROM friends f
+                    JOIN friendship_status fs ON f.status_id = fs.id
+                    WHERE f.user_id = ? AND f.friend_id = ?
+                """, String.class, user1.getId(), user2.getId());
+        assertThat(status).isEqualTo("REQUESTED");
+    }
 
-        List<Friends> friends = friendshipRepository.getFriends(user1.getId());
-        assertThat(friends)
-                .hasSize(1)
-                .extracting(Friends::getStatus)
-                .contains(FriendshipStatus.valueOf("REQUESTED"));
+    @Test
+    void addFriend_ShouldReportMissingUser() {
+        assertThatThrownBy(() -> friendshipRepository.addFriend(user1.getId(), 999_999L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("999999");
+        assertThatThrownBy(() -> friendshipRepository.addFriend(999_999L, user1.getId()))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("999999");
     }
 
     @Test
     void removeFriend_ShouldDeleteFriendship() {
         friendshipRepository.addFriend(user1.getId(), user2.getId());
-        friendshipRepository.removeFriend(user1.getId(), user2.getId());
 
-        assertThat(friendshipRepository.friendshipExists(user1.getId(), user2.getId()))
-                .isFalse();
+        assertThat(friendshipRepository.removeFriend(user1.getId(), user2.getId())).isTrue();
+        assertThat(friendshipRepository.getFriendProfiles(user1.getId())).isEmpty();
     }
 
     @Test
-    void getFriends_ShouldReturnCorrectList() {
-        friendshipRepository.addFriend(user1.getId(), user2.getId());
+    void getFriendProfiles_ShouldReturnFriendsWithProfiles() {
         friendshipRepository.addFriend(user1.getId(), user3.getId());
+        friendshipRepository.addFriend(user1.getId(), user2.getId());
 
-        List<Friends> friends = friendshipRepository.getFriends(user1.getId());
+        List<User> friends = friendshipRepository.getFriendProfiles(user1.getId());
         assertThat(friends)
-                .hasSize(2)
-                .extracting(Friends::getFriendId)
-                .contains(user2.getId(), user3.getId());
+                .extracting(User::getLogin)
+                .containsExactly("user2", "user3");
+        assertThat(friendshipRepository.getFriendProfiles(user3.getId())).isEmpty();
     }
 
     @Test
@@ -116,4 +122,36 @@ class FriendshipRepositoryTest {
                 .contains(user3.getId());
     }
 
-}
\ No newline at end of file
+    @Test
+    void getSuggestedFriendIds_ShouldReturnFriendsOfFriends() {
+        friendshipRepository.addFriend(user1.getId(), user2.getId());
+        friendshipRepository.addFriend(user2.getId(), user1.getId());
+        friendshipRepository.addFriend(user2.getId(), user3.getId());
+
+        assertThat(friendshipRepository.getSuggestedFriendIds(user1.getId(), 10, 100))
+                .containsExactly(user3.getId());
+
+        friendshipRepository.addFriend(user1.getId(), user3.getId());
+        assertThat(friendshipRepository.getSuggestedFriendIds(user1.getId(), 10, 100)).isEmpty();
+    }
+
+    @Test
+    void getSuggestedFriendIds_ShouldWalkOnlyMaxFanOutFriends() {
+        User user4 = User.builder()
+                .email("user4@test.com")
+                .login("user4")
+                .name("User Four")
+                .birthday(LocalDate.of(1994, 9, 20))
+                .build();
+        userRepository.create(user4);
+        friendshipRepository.addFriend(user1.getId(), user2.getId());
+        friendshipRepository.addFriend(user1.getId(), user3.getId());
+        friendshipRepository.addFriend(user3.getId(), user4.getId());
+
+        assertThat(friendshipRepository.getSuggestedFriendIds(user1.getId(), 10, 2))
+                .containsExactly(user4.getId());
+        // При maxFanOut = 1 просматриваются только друзья user2 — первого по id друга user1
+        assertThat(friendshipRepository.getSuggestedFriendIds(user1.getId(), 10, 1)).isEmpty();
+    }
+
+}
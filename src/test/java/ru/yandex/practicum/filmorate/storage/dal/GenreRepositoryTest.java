@@ -10,12 +10,14 @@ import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
 import ru.yandex.practicum.filmorate.model.film.Film;
 import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.FilmRowMapper;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.MpaRowMapper;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -24,8 +26,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 @JdbcTest
 @AutoConfigureTestDatabase()
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({FilmRepository.class, FilmRowMapper.class, MpaRepository.class, MpaRowMapper.class,
-        GenreRepository.class, GenreRowMapper.class, LikeRepository.class})
+@Import({FilmRepository.class, FilmRowMapper.class, ReferenceDataCache.class, MpaRepository.class,
+        MpaRowMapper.class, GenreRepository.class, GenreRowMapper.class, LikeRepository.class})
 class GenreRepositoryTest {
 
     private final GenreRepository genreRepository;
@@ -99,6 +101,14 @@ class GenreRepositoryTest {
     }
 
 
+    @Test
+    void saveGenresForFilms_ShouldCreateLinksInOneBatch() {
+        genreRepository.saveGenres(Map.of(film.getId(), Set.of(1L, 4L)));
+
+        assertThat(genreRepository.findGenreIdsByFilmId(film.getId()))
+                .containsExactlyInAnyOrder(1L, 4L);
+    }
+
     @Test
     void updateGenres_ShouldUpdateLinks() {
         genreRepository.saveGenres(film.getId(), Set.of(1L, 2L));
@@ -111,5 +121,28 @@ class GenreRepositoryTest {
                 .containsExactlyInAnyOrder(3L, 4L);
     }
 
+    @Test
+    void updateGenres_ShouldApplyOnlyDifference() {
+        genreRepository.saveGenres(film.getId(), Set.of(1L, 2L, 3L));
+        genreRepository.updateGenres(film.getId(), Set.of(2L, 3L, 5L));
+
+        assertThat(genreRepository.findGenreIdsByFilmId(film.getId()))
+                .containsExactlyInAnyOrder(2L, 3L, 5L);
+
+        genreRepository.updateGenres(film.getId(), null);
+        assertThat(genreRepository.findGenreIdsByFilmId(film.getId())).isEmpty();
+    }
+
+    @Test
+    void findGenreIdsForFilms_ShouldGroupIdsByFilm() {
+        genreRepository.saveGenres(film.getId(), Set.of(2L, 6L));
+
+        assertThat(genreRepository.findGenreIdsForFilms(Set.of(film.getId())))
+                .containsOnlyKeys(film.getId())
+                .extractingByKey(film.getId())
+                .isEqualTo(Set.of(2L, 6L));
+        assertThat(genreRepository.findGenreIdsByFilmId(film.getId()))
+                .containsExactlyInAnyOrder(2L, 6L);
+    }
 
-}
\ No newline at end of file
+}
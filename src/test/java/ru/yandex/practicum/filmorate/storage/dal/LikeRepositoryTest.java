@@ -8,24 +8,35 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.Like;
 import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.FilmRowMapper;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.MpaRowMapper;
 import ru.yandex.practicum.filmorate.storage.dal.rowmapper.UserRowMapper;
 
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @JdbcTest
 @AutoConfigureTestDatabase()
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({FilmRepository.class, FilmRowMapper.class, MpaRepository.class, MpaRowMapper.class,
-        LikeRepository.class, UserRepository.class, UserRowMapper.class, GenreRepository.class, GenreRowMapper.class})
+@Import({FilmRepository.class, FilmRowMapper.class, ReferenceDataCache.class, MpaRepository.class,
+        MpaRowMapper.class, LikeRepository.class, UserRepository.class, UserRowMapper.class, GenreRepository.class,
+        GenreRowMapper.class})
 class LikeRepositoryTest {
 
     private final LikeRepository likeRepository;
@@ -94,7 +105,7 @@ class LikeRepositoryTest {
     void addLike_ShouldCreateLike() {
         likeRepository.addLike(film1.getId(), user1.getId());
 
-        Set<Long> likes = likeRepository.getLikes(film1.getId());
+        Set<Long> likes = likesOf(film1.getId());
         assertThat(likes).contains(user1.getId());
     }
 
@@ -103,16 +114,16 @@ class LikeRepositoryTest {
         likeRepository.addLike(film1.getId(), user1.getId());
         likeRepository.removeLike(film1.getId(), user1.getId());
 
-        Set<Long> likes = likeRepository.getLikes(film1.getId());
+        Set<Long> likes = likesOf(film1.getId());
         assertThat(likes).isEmpty();
     }
 
     @Test
-    void getLikes_ShouldReturnAllLikesForFilm() {
+    void findLikesForFilms_ShouldReturnAllLikesForFilm() {
         likeRepository.addLike(film1.getId(), user1.getId());
         likeRepository.addLike(film1.getId(), user2.getId());
 
-        Set<Long> likes = likeRepository.getLikes(film1.getId());
+        Set<Long> likes = likesOf(film1.getId());
         assertThat(likes)
                 .hasSize(2)
                 .contains(user1.getId(), user2.getId());
@@ -140,5 +151,106 @@ class LikeRepositoryTest {
                 .contains(user3.getId());
     }
 
+    @Test
+    void removeLike_ShouldReportWhetherLikeExisted() {
+        likeRepository.addLike(film1.getId(), user1.getId());
+
+        assertThat(likeRepository.removeLike(film1.getId(), user1.getId())).isPresent();
+        assertThat(likeRepository.removeLike(film1.getId(), user1.getId())).isEmpty();
+    }
+
+    @Test
+    void countLikesByFilm_ShouldIncludeFilmsWithoutLikes() {
+        likeRepository.addLike(film1.getId(), user1.getId());
+        likeRepository.addLike(film1.getId(), user2.getId());
+
+        Map<Long, Integer> counts = likeRepository.countLikesByFilm();
+
+        assertThat(counts)
+                .containsEntry(film1.getId(), 2)
+                .containsEntry(film2.getId(), 0);
+    }
+
+    @Test
+    void findLikesBy_ShouldReturnFilmsOfUser() {
+        likeRepository.addLike(film1.getId(), user1.getId());
+        likeRepository.addLike(film2.getId(), user1.getId());
+        likeRepository.addLike(film2.getId(), user2.getId());
+
+        assertThat(likeRepository.findLikesBy(user1.getId()))
+                .containsOnlyKeys(film1.getId(), film2.getId());
+    }
+
+    @Test
+    void addLike_ShouldTranslateConstraintViolations() {
+        likeRepository.addLike(film1.getId(), user1.getId());
+
+        assertThatThrownBy(() -> likeRepository.addLike(film1.getId(), user1.getId()))
+                .isInstanceOf(ConflictException.class);
+        assertThatThrownBy(() -> likeRepository.addLike(999_999L, user1.getId()))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("Фильм");
+        assertThatThrownBy(() -> likeRepository.addLike(film1.getId(), 999_999L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("Пользователь");
+    }
+
+    @Test
+    void likeWrites_ShouldMaintainLikesCount() {
+        likeRepository.addLike(film1.getId(), user1.getId());
+        likeRepository.addLikes(List.of(new Like(film1.getId(), user2.getId()), new Like(film1.getId(), user1.getId()),
+                new Like(film2.getId(), user1.getId())), Instant.now());
+        likeRepository.removeLike(film2.getId(), user1.getId());
+        likeRepository.removeLike(film2.getId(), user1.getId());
+        likeRepository.removeLikes(List.of(new Like(film1.getId(), user3.getId())));
+
+        assertThat(filmRepository.getFilm(film1.getId()).getLikesCount()).isEqualTo(2);
+        assertThat(filmRepository.getFilm(film2.getId()).getLikesCount()).isZero();
+
+        likeRepository.removeLikesBy(user1.getId());
+
+        assertThat(filmRepository.getFilm(film1.getId()).getLikesCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileLikesCounts_ShouldRepairDrift() {
+        likeRepository.addLike(film1.getId(), user1.getId());
+        jdbcTemplate.update("INSERT INTO film_likes (film_id, user_id) VALUES (?, ?)", film1.getId(), user2.getId());
+        jdbcTemplate.update("UPDATE films SET likes_count = 5 WHERE id = ?", film2.getId());
+
+        assertThat(likeRepository.reconcileLikesCounts()).containsExactlyInAnyOrder(film1.getId(), film2.getId());
+        assertThat(filmRepository.getFilm(film1.getId()).getLikesCount()).isEqualTo(2);
+        assertThat(filmRepository.getFilm(film2.getId()).getLikesCount()).isZero();
+        assertThat(likeRepository.reconcileLikesCounts()).isEmpty();
+    }
 
-}
\ No newline at end of file
+    @Test
+    void forEachLikeSince_ShouldSkipOlderAndUndatedLikes() {
+        likeRepository.addLike(film1.getId(), user1.getId());
+        jdbcTemplate.update("INSERT INTO film_likes (film_id, user_id, created_at) VALUES (?, ?, ?)",
+                film1.getId(), user2.getId(), Timestamp.from(Instant.now().minus(Duration.ofDays(10))));
+        jdbcTemplate.update("INSERT INTO film_likes (film_id, user_id, created_at) VALUES (?, ?, NULL)",
+                film2.getId(), user1.getId());
+
+        List<Long> filmIds = new ArrayList<>();
+        likeRepository.forEachLikeSince(Instant.now().minus(Duration.ofDays(7)), (filmId, likedAt) -> filmIds.add(filmId));
+
+        assertThat(filmIds).containsExactly(film1.getId());
+    }
+
+    @Test
+    void removeLike_ShouldReturnTimeOfLike() {
+        Instant likedAt = likeRepository.addLike(film1.getId(), user1.getId());
+        jdbcTemplate.update("INSERT INTO film_likes (film_id, user_id, created_at) VALUES (?, ?, NULL)",
+                film1.getId(), user2.getId());
+
+        assertThat(likeRepository.findLikeTimes(List.of(new Like(film1.getId(), user1.getId()))))
+                .containsEntry(new Like(film1.getId(), user1.getId()), likedAt);
+        assertThat(likeRepository.removeLike(film1.getId(), user1.getId())).contains(likedAt);
+        assertThat(likeRepository.removeLike(film1.getId(), user2.getId())).contains(Instant.EPOCH);
+    }
+
+    private Set<Long> likesOf(Long filmId) {
+        return likeRepository.findLikesForFilms(Set.of(filmId)).getOrDefault(filmId, Set.of());
+    }
+}
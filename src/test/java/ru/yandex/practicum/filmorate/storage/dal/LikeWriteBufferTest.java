@@ -0,0 +1,128 @@
+package ru.yandex.practicum.filmorate.storage.dal;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.event.LikeRemovedEvent;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.FilmRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.MpaRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.UserRowMapper;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase()
+@RecordApplicationEvents
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({LikeWriteBuffer.class, LikeRepository.class, FilmRepository.class, FilmRowMapper.class,
+        ReferenceDataCache.class, MpaRepository.class, MpaRowMapper.class, GenreRepository.class, GenreRowMapper.class,
+        UserRepository.class, UserRowMapper.class})
+class LikeWriteBufferTest {
+
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final LikeRepository likeRepository;
+    private final FilmRepository filmRepository;
+    private final UserRepository userRepository;
+    private final MpaRepository mpaRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private Film film;
+    private User user1;
+    private User user2;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM film_likes");
+        filmRepository.deleteFilms();
+        userRepository.deleteUsers();
+
+        film = Film.builder()
+                .name("Фильм 1")
+                .description("Описание фильма 1")
+                .releaseDate(LocalDate.now())
+                .duration(120)
+                .mpa(mpaRepository.findById(1L))
+                .build();
+        filmRepository.create(film);
+
+        user1 = User.builder()
+                .email("user1@example.com")
+                .login("user1_login")
+                .name("User One")
+                .birthday(LocalDate.of(1990, 5, 15))
+                .build();
+        user2 = User.builder()
+                .email("user2@example.com")
+                .login("user2_login")
+                .name("User Two")
+                .birthday(LocalDate.of(1991, 5, 15))
+                .build();
+        userRepository.create(user1);
+        userRepository.create(user2);
+    }
+
+    @Test
+    void flush_ShouldWriteBufferedLikes() {
+        likeWriteBuffer.addLike(film.getId(), user1.getId());
+        likeWriteBuffer.addLike(film.getId(), user2.getId());
+
+        assertThat(likesOf(film.getId())).isEmpty();
+
+        likeWriteBuffer.flush();
+
+        assertThat(likeWriteBuffer.getPendingCount()).isZero();
+        assertThat(likesOf(film.getId()))
+                .containsExactlyInAnyOrder(user1.getId(), user2.getId());
+        assertThat(events.stream(LikeAddedEvent.class)).hasSize(2);
+    }
+
+    @Test
+    void flush_ShouldApplyLastOperationPerKey() {
+        likeWriteBuffer.addLike(film.getId(), user1.getId());
+        likeWriteBuffer.removeLike(film.getId(), user1.getId());
+        likeWriteBuffer.removeLike(film.getId(), user2.getId());
+        likeWriteBuffer.addLike(film.getId(), user2.getId());
+
+        likeWriteBuffer.flush();
+
+        assertThat(likesOf(film.getId())).containsExactly(user2.getId());
+        assertThat(events.stream(LikeAddedEvent.class)).hasSize(1);
+        assertThat(events.stream(LikeRemovedEvent.class)).isEmpty();
+    }
+
+    @Test
+    void flush_ShouldPublishEventsOnlyForChangedRows() {
+        likeRepository.addLike(film.getId(), user1.getId());
+
+        likeWriteBuffer.addLike(film.getId(), user1.getId());
+        likeWriteBuffer.flush();
+        likeWriteBuffer.removeLike(film.getId(), user1.getId());
+        likeWriteBuffer.flush();
+
+        assertThat(likesOf(film.getId())).isEmpty();
+        assertThat(events.stream(LikeAddedEvent.class)).isEmpty();
+        assertThat(events.stream(LikeRemovedEvent.class)).hasSize(1);
+    }
+
+    private Set<Long> likesOf(Long filmId) {
+        return likeRepository.findLikesForFilms(Set.of(filmId)).getOrDefault(filmId, Set.of());
+    }
+}
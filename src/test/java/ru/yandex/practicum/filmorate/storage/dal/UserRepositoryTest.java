@@ -82,6 +82,25 @@ class UserRepositoryTest {
                 .containsExactlyInAnyOrder("user1@example.com", "user2@test.org");
     }
 
+    @Test
+    void getUsersPage_ShouldReturnUsersAfterCursor() {
+        assertThat(userRepository.getUsers(0, 1))
+                .extracting(User::getId)
+                .containsExactly(user1.getId());
+        assertThat(userRepository.getUsers(user1.getId(), 10))
+                .extracting(User::getId)
+                .containsExactly(user2.getId());
+        assertThat(userRepository.getUsers(user2.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void getUsersByIds_ShouldReturnUsersInRequestedOrder() {
+        assertThat(userRepository.getUsersByIds(List.of(user2.getId(), user1.getId(), 999L)))
+                .extracting(User::getId)
+                .containsExactly(user2.getId(), user1.getId());
+        assertThat(userRepository.getUsersByIds(List.of())).isEmpty();
+    }
+
     @Test
     void update_ShouldModifyExistingUser() {
         // Обновление данных
@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.event.FilmCreatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmUpdatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.dal.MpaRepository;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.FilmRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.MpaRowMapper;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase()
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmFilterIndex.class, FilmRepository.class, FilmRowMapper.class, ReferenceDataCache.class,
+        MpaRepository.class, MpaRowMapper.class, GenreRepository.class, GenreRowMapper.class})
+class FilmFilterIndexTest {
+
+    private final FilmFilterIndex filmFilterIndex;
+    private final FilmRepository filmRepository;
+    private final GenreRepository genreRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Film film1;
+    private Film film2;
+    private Film film3;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM film_genres");
+        filmRepository.deleteFilms();
+
+        film1 = createFilm(1L, 1999, Set.of(1L, 2L));
+        film2 = createFilm(2L, 1999, Set.of(2L));
+        film3 = createFilm(1L, 2010, Set.of(2L, 3L));
+
+        filmFilterIndex.rebuild();
+    }
+
+    @Test
+    void match_ShouldIntersectConditions() {
+        assertThat(filmFilterIndex.match(null, null, null)).isEmpty();
+        assertThat(ids(filmFilterIndex.match(2L, null, null).orElseThrow()))
+                .containsExactly(film1.getId(), film2.getId(), film3.getId());
+        assertThat(ids(filmFilterIndex.match(2L, 1L, 1999).orElseThrow()))
+                .containsExactly(film1.getId());
+        assertThat(ids(filmFilterIndex.match(3L, null, 1999).orElseThrow())).isEmpty();
+        assertThat(ids(filmFilterIndex.match(6L, null, null).orElseThrow())).isEmpty();
+    }
+
+    @Test
+    void filmEvents_ShouldUpdateIndex() {
+        Film film4 = createFilm(3L, 2020, Set.of(6L));
+        filmFilterIndex.onFilmCreated(new FilmCreatedEvent(film4));
+        assertThat(ids(filmFilterIndex.match(6L, 3L, 2020).orElseThrow()))
+                .containsExactly(film4.getId());
+
+        film1.setReleaseDate(LocalDate.of(2010, 5, 1));
+        film1.setGenres(referenceDataCache.getGenres(List.of(3L)));
+        filmFilterIndex.onFilmUpdated(new FilmUpdatedEvent(film1));
+        assertThat(ids(filmFilterIndex.match(null, null, 1999).orElseThrow()))
+                .containsExactly(film2.getId());
+        assertThat(ids(filmFilterIndex.match(3L, null, 2010).orElseThrow()))
+                .containsExactly(film1.getId(), film3.getId());
+
+        filmFilterIndex.onFilmsDeleted(new FilmsDeletedEvent());
+        assertThat(ids(filmFilterIndex.match(2L, null, null).orElseThrow())).isEmpty();
+    }
+
+    private static List<Long> ids(RoaringBitmap films) {
+        return films.stream().mapToObj(Long::valueOf).toList();
+    }
+
+    private Film createFilm(Long mpaId, int year, Set<Long> genreIds) {
+        Film film = Film.builder()
+                .name("Фильм " + year)
+                .description("Описание")
+                .releaseDate(LocalDate.of(year, 1, 1))
+                .duration(100)
+                .mpa(referenceDataCache.getMpa(mpaId))
+                .genres(referenceDataCache.getGenres(genreIds))
+                .build();
+        filmRepository.create(film);
+        genreRepository.saveGenres(film.getId(), genreIds);
+        return film;
+    }
+}
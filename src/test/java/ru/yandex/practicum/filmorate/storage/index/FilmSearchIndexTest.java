@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.event.FilmCreatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmUpdatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.dal.MpaRepository;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.FilmRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.MpaRowMapper;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase()
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmSearchIndex.class, FilmRepository.class, FilmRowMapper.class, ReferenceDataCache.class,
+        MpaRepository.class, MpaRowMapper.class, GenreRepository.class, GenreRowMapper.class})
+class FilmSearchIndexTest {
+
+    private final FilmSearchIndex filmSearchIndex;
+    private final FilmRepository filmRepository;
+    private final MpaRepository mpaRepository;
+
+    private Film film1;
+    private Film film2;
+    private Film film3;
+
+    @BeforeEach
+    void setUp() {
+        filmRepository.deleteFilms();
+
+        film1 = createFilm("Ёжик в тумане", "Ёжик идёт в гости к медвежонку");
+        film2 = createFilm("Туманность Андромеды", "Экранизация романа о далёком будущем");
+        film3 = createFilm("Сталкер", "Путешествие в Зону сквозь туман и дождь, туман повсюду");
+
+        filmSearchIndex.rebuild();
+    }
+
+    @Test
+    void tokenize_ShouldLowercaseAndNormalizeYo() {
+        assertThat(FilmSearchIndex.tokenize("Ёжик, в ТУМАНЕ — 1975!"))
+                .containsExactly("ежик", "в", "тумане", "1975");
+    }
+
+    @Test
+    void search_ShouldRankByBm25() {
+        assertThat(filmSearchIndex.search("туман", 10))
+                .containsExactly(film3.getId());
+        assertThat(filmSearchIndex.search("ежик тумане", 10))
+                .containsExactly(film1.getId());
+        assertThat(filmSearchIndex.search("в", 10))
+                .containsExactly(film1.getId(), film3.getId());
+        assertThat(filmSearchIndex.search("несуществующее слово", 10)).isEmpty();
+    }
+
+    @Test
+    void filmEvents_ShouldUpdateIndex() {
+        Film film4 = createFilm("Солярис", "Океан мыслящей планеты");
+        filmSearchIndex.onFilmCreated(new FilmCreatedEvent(film4));
+        assertThat(filmSearchIndex.search("Солярис", 10)).containsExactly(film4.getId());
+
+        film2.setName("Андромеда");
+        film2.setDescription("Новое описание");
+        filmSearchIndex.onFilmUpdated(new FilmUpdatedEvent(film2));
+        assertThat(filmSearchIndex.search("туманность", 10)).isEmpty();
+        assertThat(filmSearchIndex.search("андромеда", 10)).containsExactly(film2.getId());
+
+        filmSearchIndex.onFilmsDeleted(new FilmsDeletedEvent());
+        assertThat(filmSearchIndex.search("андромеда", 10)).isEmpty();
+    }
+
+    // Больший id до индекса не доходит: его отклоняет ограничение в схеме
+    @Test
+    void onFilmCreated_ShouldIndexLargestAllowedId() {
+        Film film = Film.builder()
+                .id((long) Integer.MAX_VALUE)
+                .name("Солярис")
+                .description("Океан мыслящей планеты")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .build();
+
+        filmSearchIndex.onFilmCreated(new FilmCreatedEvent(film));
+
+        assertThat(filmSearchIndex.search("солярис", 10)).containsExactly((long) Integer.MAX_VALUE);
+    }
+
+    private Film createFilm(String name, String description) {
+        Film film = Film.builder()
+                .name(name)
+                .description(description)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(mpaRepository.findById(1L))
+                .build();
+        filmRepository.create(film);
+        return film;
+    }
+}
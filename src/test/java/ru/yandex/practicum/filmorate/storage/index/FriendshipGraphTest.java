@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.event.FriendAddedEvent;
+import ru.yandex.practicum.filmorate.event.FriendRemovedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.storage.dal.FriendshipRepository;
+import ru.yandex.practicum.filmorate.storage.dal.UserRepository;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.UserRowMapper;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = "filmorate.users.friendship-graph.enabled=true")
+@AutoConfigureTestDatabase()
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FriendshipGraph.class, FriendshipRepository.class, UserRepository.class, UserRowMapper.class})
+class FriendshipGraphTest {
+
+    private final FriendshipGraph friendshipGraph;
+    private final FriendshipRepository friendshipRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private User user1;
+    private User user2;
+    private User user3;
+    private User user4;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM friends");
+        userRepository.deleteUsers();
+
+        user1 = createUser("user1");
+        user2 = createUser("user2");
+        user3 = createUser("user3");
+        user4 = createUser("user4");
+
+        friendshipRepository.addFriend(user1.getId(), user3.getId());
+        friendshipRepository.addFriend(user1.getId(), user2.getId());
+        friendshipRepository.addFriend(user1.getId(), user4.getId());
+        friendshipRepository.addFriend(user2.getId(), user4.getId());
+        friendshipRepository.addFriend(user2.getId(), user3.getId());
+        friendshipGraph.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldLoadSortedFriendLists() {
+        assertThat(friendshipGraph.isEnabled()).isTrue();
+        assertThat(friendshipGraph.getFriendIds(user1.getId()))
+                .containsExactly(user2.getId(), user3.getId(), user4.getId());
+        assertThat(friendshipGraph.getFriendIds(user3.getId())).isEmpty();
+    }
+
+    @Test
+    void getCommonFriendIds_ShouldIntersectFriendLists() {
+        assertThat(friendshipGraph.getCommonFriendIds(user1.getId(), user2.getId()))
+                .containsExactly(user3.getId(), user4.getId());
+        assertThat(friendshipGraph.getCommonFriendIds(user1.getId(), user3.getId())).isEmpty();
+    }
+
+    @Test
+    void suggestFriendIds_ShouldRankFriendsOfFriendsByMutualCount() {
+        User user5 = createUser("user5");
+        User user6 = createUser("user6");
+        friendshipGraph.onFriendAdded(new FriendAddedEvent(user2.getId(), user5.getId()));
+        friendshipGraph.onFriendAdded(new FriendAddedEvent(user3.getId(), user5.getId()));
+        friendshipGraph.onFriendAdded(new FriendAddedEvent(user4.getId(), user6.getId()));
+        friendshipGraph.onFriendAdded(new FriendAddedEvent(user4.getId(), user1.getId()));
+
+        assertThat(friendshipGraph.suggestFriendIds(user1.getId(), 10))
+                .containsExactly(user5.getId(), user6.getId());
+        assertThat(friendshipGraph.suggestFriendIds(user1.getId(), 1))
+                .containsExactly(user5.getId());
+        assertThat(friendshipGraph.suggestFriendIds(user6.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void friendEvents_ShouldUpdateGraph() {
+        friendshipGraph.onFriendAdded(new FriendAddedEvent(user3.getId(), user1.getId()));
+        friendshipGraph.onFriendRemoved(new FriendRemovedEvent(user1.getId(), user3.getId()));
+
+        assertThat(friendshipGraph.getFriendIds(user3.getId())).containsExactly(user1.getId());
+        assertThat(friendshipGraph.getFriendIds(user1.getId())).containsExactly(user2.getId(), user4.getId());
+    }
+
+    @Test
+    void onUserDeleted_ShouldRemoveUserFromAllLists() {
+        friendshipGraph.onUserDeleted(new UserDeletedEvent(user4.getId()));
+
+        assertThat(friendshipGraph.getFriendIds(user1.getId())).containsExactly(user2.getId(), user3.getId());
+        assertThat(friendshipGraph.getFriendIds(user2.getId())).containsExactly(user3.getId());
+    }
+
+    private User createUser(String login) {
+        User user = User.builder()
+                .email(login + "@test.com")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+        userRepository.create(user);
+        return user;
+    }
+}
@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.event.LikeRemovedEvent;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.dal.LikeRepository;
+import ru.yandex.practicum.filmorate.storage.dal.MpaRepository;
+import ru.yandex.practicum.filmorate.storage.dal.UserRepository;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.FilmRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.MpaRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.UserRowMapper;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase()
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({LikeBitmapIndex.class, FilmRepository.class, FilmRowMapper.class, ReferenceDataCache.class,
+        MpaRepository.class, MpaRowMapper.class, GenreRepository.class, GenreRowMapper.class, LikeRepository.class,
+        UserRepository.class, UserRowMapper.class})
+class LikeBitmapIndexTest {
+
+    private final LikeBitmapIndex likeBitmapIndex;
+    private final FilmRepository filmRepository;
+    private final UserRepository userRepository;
+    private final LikeRepository likeRepository;
+    private final MpaRepository mpaRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Film film1;
+    private Film film2;
+    private Film film3;
+    private Film film4;
+    private User user1;
+    private User user2;
+    private User user3;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM film_likes");
+        filmRepository.deleteFilms();
+        userRepository.deleteUsers();
+
+        film1 = createFilm("Фильм 1");
+        film2 = createFilm("Фильм 2");
+        film3 = createFilm("Фильм 3");
+        film4 = createFilm("Фильм 4");
+        user1 = createUser("user1");
+        user2 = createUser("user2");
+        user3 = createUser("user3");
+
+        // user2 совпадает с user1 по двум фильмам, user3 — по одному
+        likeRepository.addLike(film1.getId(), user1.getId());
+        likeRepository.addLike(film2.getId(), user1.getId());
+        likeRepository.addLike(film1.getId(), user2.getId());
+        likeRepository.addLike(film2.getId(), user2.getId());
+        likeRepository.addLike(film3.getId(), user2.getId());
+        likeRepository.addLike(film1.getId(), user3.getId());
+        likeRepository.addLike(film4.getId(), user3.getId());
+
+        likeBitmapIndex.rebuild();
+    }
+
+    @Test
+    void recommend_ShouldRankUnseenFilmsByNeighbourOverlap() {
+        assertThat(likeBitmapIndex.recommend(user1.getId(), 10))
+                .containsExactly(film3.getId(), film4.getId());
+        assertThat(likeBitmapIndex.recommend(user1.getId(), 1))
+                .containsExactly(film3.getId());
+    }
+
+    @Test
+    void recommend_ShouldReturnEmptyListForUserWithoutLikes() {
+        User user4 = createUser("user4");
+
+        assertThat(likeBitmapIndex.recommend(user4.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void likeEvents_ShouldUpdateRecommendations() {
+        likeBitmapIndex.onLikeAdded(new LikeAddedEvent(film3.getId(), user1.getId(), Instant.now()));
+        assertThat(likeBitmapIndex.recommend(user1.getId(), 10))
+                .containsExactly(film4.getId());
+
+        likeBitmapIndex.onLikeRemoved(new LikeRemovedEvent(film1.getId(), user3.getId(), Instant.now()));
+        assertThat(likeBitmapIndex.recommend(user1.getId(), 10)).isEmpty();
+
+        likeBitmapIndex.onFilmsDeleted(new FilmsDeletedEvent());
+        assertThat(likeBitmapIndex.recommend(user2.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void schema_ShouldRejectIdsThatDoNotFitBitmaps() {
+        assertThatThrownBy(() -> jdbcTemplate.update("""
+                    INSERT INTO users (id, email, login, name, birthday)
+                    VALUES (2147483648, 'big@test.com', 'big', 'Big', DATE '1990-01-01')
+                """))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThatThrownBy(() -> jdbcTemplate.update("""
+                    INSERT INTO films (id, name, description, release_date, duration, mpa_id)
+                    VALUES (2147483648, 'Большой', 'Описание', DATE '2000-01-01', 100, 1)
+                """))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private Film createFilm(String name) {
+        Film film = Film.builder()
+                .name(name)
+                .description("Описание")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(mpaRepository.findById(1L))
+                .build();
+        filmRepository.create(film);
+        return film;
+    }
+
+    private User createUser(String login) {
+        User user = User.builder()
+                .email(login + "@test.com")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+        userRepository.create(user);
+        return user;
+    }
+}
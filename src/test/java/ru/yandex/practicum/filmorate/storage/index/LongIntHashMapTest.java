@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongIntHashMapTest {
+
+    @Test
+    void addTo_ShouldAccumulateAndGrowBeyondInitialCapacity() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (long key = 1; key <= 10_000; key++) {
+            map.addTo(key, 1);
+            map.addTo(key, (int) key);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        assertThat(map.get(1)).isEqualTo(2);
+        assertThat(map.get(10_000)).isEqualTo(10_001);
+        assertThat(map.get(10_001)).isZero();
+        assertThat(map.containsKey(10_001)).isFalse();
+    }
+
+    @Test
+    void topKeys_ShouldOrderByValueThenByKey() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        map.put(5, 3);
+        map.put(2, 7);
+        map.put(9, 3);
+        map.put(1, 1);
+        map.put(4, 7);
+
+        assertThat(map.topKeys(3)).containsExactly(2, 4, 5);
+        assertThat(map.topKeys(10)).containsExactly(2, 4, 5, 9, 1);
+        assertThat(map.topKeys(0)).isEmpty();
+    }
+
+    @Test
+    void forEachAndClear_ShouldVisitAllEntries() {
+        LongIntHashMap map = new LongIntHashMap(8);
+        map.put(10, 1);
+        map.put(20, 2);
+
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited).containsExactlyInAnyOrderEntriesOf(Map.of(10L, 1, 20L, 2));
+
+        map.clear();
+        assertThat(map.size()).isZero();
+        assertThat(map.topKeys(5)).isEmpty();
+    }
+
+    @Test
+    void put_ShouldRejectNonPositiveKeys() {
+        assertThatThrownBy(() -> new LongIntHashMap(4).put(0, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
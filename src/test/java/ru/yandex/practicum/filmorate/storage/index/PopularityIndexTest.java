@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.event.FilmCreatedEvent;
+import ru.yandex.practicum.filmorate.event.FilmsDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeAddedEvent;
+import ru.yandex.practicum.filmorate.event.LikeRemovedEvent;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.dal.LikeRepository;
+import ru.yandex.practicum.filmorate.storage.dal.MpaRepository;
+import ru.yandex.practicum.filmorate.storage.dal.UserRepository;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.FilmRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.GenreRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.MpaRowMapper;
+import ru.yandex.practicum.filmorate.storage.dal.rowmapper.UserRowMapper;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase()
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({PopularityIndex.class, FilmRepository.class, FilmRowMapper.class, ReferenceDataCache.class,
+        MpaRepository.class, MpaRowMapper.class, GenreRepository.class, GenreRowMapper.class, LikeRepository.class,
+        UserRepository.class, UserRowMapper.class})
+class PopularityIndexTest {
+
+    private final PopularityIndex popularityIndex;
+    private final FilmRepository filmRepository;
+    private final UserRepository userRepository;
+    private final LikeRepository likeRepository;
+    private final MpaRepository mpaRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Film film1;
+    private Film film2;
+    private Film film3;
+    private User user1;
+    private User user2;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM film_likes");
+        filmRepository.deleteFilms();
+        userRepository.deleteUsers();
+
+        film1 = createFilm("Фильм 1");
+        film2 = createFilm("Фильм 2");
+        film3 = createFilm("Фильм 3");
+        user1 = createUser("user1");
+        user2 = createUser("user2");
+
+        likeRepository.addLike(film2.getId(), user1.getId());
+        likeRepository.addLike(film2.getId(), user2.getId());
+        likeRepository.addLike(film3.getId(), user1.getId());
+
+        popularityIndex.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldRankFilmsByLikesThenById() {
+        assertThat(popularityIndex.getTopFilmIds(10))
+                .containsExactly(film2.getId(), film3.getId(), film1.getId());
+        assertThat(popularityIndex.getTopFilmIds(1))
+                .containsExactly(film2.getId());
+    }
+
+    @Test
+    void getTopFilmIds_ShouldRankOnlyFilteredFilms() {
+        RoaringBitmap filter = RoaringBitmap.bitmapOf(film1.getId().intValue(), film3.getId().intValue());
+
+        // Короткий топ набирается проходом по рейтингу, длинный — выбором из самого фильтра
+        assertThat(popularityIndex.getTopFilmIds(1, filter))
+                .containsExactly(film3.getId());
+        assertThat(popularityIndex.getTopFilmIds(10, filter))
+                .containsExactly(film3.getId(), film1.getId());
+        assertThat(popularityIndex.getTopFilmIds(10, new RoaringBitmap())).isEmpty();
+    }
+
+    @Test
+    void likeEvents_ShouldReorderRanking() {
+        popularityIndex.onLikeAdded(new LikeAddedEvent(film1.getId(), user1.getId(), Instant.now()));
+        popularityIndex.onLikeAdded(new LikeAddedEvent(film1.getId(), user2.getId(), Instant.now()));
+        popularityIndex.onLikeRemoved(new LikeRemovedEvent(film2.getId(), user1.getId(), Instant.now()));
+
+        assertThat(popularityIndex.getTopFilmIds(3))
+                .containsExactly(film1.getId(), film2.getId(), film3.getId());
+    }
+
+    @Test
+    void filmEvents_ShouldAddAndClearFilms() {
+        Film film4 = createFilm("Фильм 4");
+        popularityIndex.onFilmCreated(new FilmCreatedEvent(film4));
+
+        assertThat(popularityIndex.getTopFilmIds(10)).endsWith(film4.getId());
+
+        popularityIndex.onFilmsDeleted(new FilmsDeletedEvent());
+        assertThat(popularityIndex.getTopFilmIds(10)).isEmpty();
+    }
+
+    private Film createFilm(String name) {
+        Film film = Film.builder()
+                .name(name)
+                .description("Описание")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(mpaRepository.findById(1L))
+                .build();
+        filmRepository.create(film);
+        return film;
+    }
+
+    private User createUser(String login) {
+        User user = User.builder()
+                .email(login + "@test.com")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+        userRepository.create(user);
+        return user;
+    }
+}
@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.BadRequestException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrendingIndexTest {
+    private static final long NOW = 30_000_000L;
+    private static final long HOUR = 60;
+    private static final long DAY = 24 * HOUR;
+
+    private final TrendingIndex index = new TrendingIndex(null);
+
+    @Test
+    void getTopFilmIds_ShouldCountOnlyLikesInsideWindow() {
+        like(1L, 3, NOW - 10);
+        like(2L, 5, NOW - 3 * HOUR);
+        like(3L, 7, NOW - 3 * DAY);
+        like(4L, 9, NOW - 8 * DAY);
+
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.HOUR, 10, NOW)).containsExactly(1L);
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.DAY, 10, NOW)).containsExactly(2L, 1L);
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.WEEK, 10, NOW)).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void getTopFilmIds_ShouldApplyRemovalsAndLimit() {
+        like(1L, 2, NOW - 5);
+        like(2L, 2, NOW - 5);
+        like(3L, 3, NOW - 5);
+        index.remove(3L, NOW - 5);
+        index.remove(3L, NOW - 5);
+
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.HOUR, 2, NOW)).containsExactly(1L, 2L);
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.HOUR, 0, NOW)).isEmpty();
+    }
+
+    @Test
+    void add_ShouldNotOverwriteBucketOfLaterMinute() {
+        like(1L, 1, NOW);
+        // Та же минутная корзина часом раньше: в часовом окне не учитывается, в суточном — учитывается
+        like(1L, 4, NOW - HOUR);
+        like(2L, 2, NOW);
+
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.HOUR, 10, NOW)).containsExactly(2L, 1L);
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.DAY, 10, NOW)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void remove_ShouldSubtractFromBucketOfLikeTime() {
+        like(1L, 1, NOW - 10);
+        like(2L, 1, NOW - 10);
+        like(1L, 1, NOW - 6 * DAY);
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.WEEK, 10, NOW)).containsExactly(1L, 2L);
+
+        // Снят лайк шестидневной давности: часовое и суточное окна не меняются, недельное теряет лайк
+        index.remove(1L, NOW - 6 * DAY);
+
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.HOUR, 10, NOW)).containsExactly(1L, 2L);
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.DAY, 10, NOW)).containsExactly(1L, 2L);
+        index.remove(1L, NOW - 10);
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.WEEK, 10, NOW)).containsExactly(2L);
+    }
+
+    @Test
+    void remove_ShouldIgnoreLikeOlderThanRing() {
+        like(1L, 1, NOW - 10);
+        index.remove(1L, NOW - 8 * DAY);
+
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.HOUR, 10, NOW)).containsExactly(1L);
+        assertThat(index.getTopFilmIds(TrendingIndex.Window.WEEK, 10, NOW)).containsExactly(1L);
+    }
+
+    @Test
+    void windowOf_ShouldRejectUnknownValue() {
+        assertThat(TrendingIndex.Window.of("7d")).isEqualTo(TrendingIndex.Window.WEEK);
+        assertThatThrownBy(() -> TrendingIndex.Window.of("2h")).isInstanceOf(BadRequestException.class);
+    }
+
+    private void like(Long filmId, int times, long minute) {
+        for (int i = 0; i < times; i++) {
+            index.add(filmId, minute);
+        }
+    }
+}